@@ -1,19 +1,37 @@
 package com.planai.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.openai.OpenAiChatOptions;
 import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.service.ai.AiTaskExecutors;
+import com.planai.service.ai.RateLimitAwareResponseErrorHandler;
+import com.planai.service.ai.RoutingChatModel;
+import com.planai.service.ai.StubChatModel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.netty.http.client.HttpClient;
 
 /**
  * AI Configuration for Spring AI with Groq compatibility.
@@ -24,8 +42,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * null/empty fields from serialization.
  */
 @Configuration
+@EnableConfigurationProperties(AiRoutingProperties.class)
 public class AiConfig {
 
+    private static final String PRIMARY_ENDPOINT = "primary";
+
     @Value("${spring.ai.openai.base-url}")
     private String baseUrl;
 
@@ -38,51 +59,108 @@ public class AiConfig {
     @Value("${spring.ai.openai.chat.options.temperature:0.7}")
     private Float temperature;
 
+    @Value("${app.ai.timeout-seconds:60}")
+    private long timeoutSeconds;
+
     /**
      * Creates a custom OpenAiApi configured for Groq compatibility.
+     */
+    @Bean
+    public OpenAiApi openAiApi(HttpClient aiHttpClient) {
+        return createOpenAiApi(baseUrl, apiKey, aiHttpClient);
+    }
+
+    /**
+     * Creates a custom OpenAiChatModel that uses our Groq-compatible OpenAiApi.
+     * This overrides Spring AI's auto-configured model.
+     */
+    @Bean
+    public OpenAiChatModel openAiChatModel(OpenAiApi openAiApi) {
+        return createChatModel(openAiApi, model);
+    }
+
+    /**
+     * Creates the ChatClient using our custom OpenAiChatModel.
+     * 
+     * With app.ai.routing.enabled, calls are routed over the primary model and the additional endpoints,
+     * with hedging and health-based ejection (see RoutingChatModel). Under the stub-ai profile the primary model
+     * is the stub chat model (see StubAiConfig). Other ChatModel beans, such as test doubles, are not picked up.
+     */
+    @Bean
+    public ChatClient chatClient(OpenAiChatModel openAiChatModel, ObjectProvider<StubChatModel> stubChatModel,
+            AiRoutingProperties routing, HttpClient aiHttpClient, AiTaskExecutors taskExecutors,
+            MeterRegistry meterRegistry) {
+        ChatModel chatModel = stubChatModel.getIfAvailable(() -> openAiChatModel);
+        if (!routing.enabled() || routing.endpoints().isEmpty()) {
+            return ChatClient.create(chatModel);
+        }
+
+        List<RoutingChatModel.Endpoint> endpoints = new ArrayList<>();
+        endpoints.add(new RoutingChatModel.Endpoint(PRIMARY_ENDPOINT, chatModel, routing.primaryWeight()));
+        for (AiRoutingProperties.Endpoint endpoint : routing.endpoints()) {
+            OpenAiApi endpointApi = createOpenAiApi(endpoint.baseUrl(), endpoint.apiKey(), aiHttpClient);
+            String endpointModel = endpoint.model() == null || endpoint.model().isBlank() ? model : endpoint.model();
+            endpoints.add(new RoutingChatModel.Endpoint(endpoint.name(), createChatModel(endpointApi, endpointModel),
+                    endpoint.weight()));
+        }
+        RoutingChatModel.Policy policy = new RoutingChatModel.Policy(
+                routing.hedge().enabled(),
+                routing.hedge().percentile(),
+                Duration.ofMillis(routing.hedge().minDelayMs()),
+                Duration.ofMillis(routing.hedge().maxDelayMs()),
+                routing.ejection().failureThreshold(),
+                Duration.ofSeconds(routing.ejection().durationSeconds()));
+        ExecutorService executor = taskExecutors.bounded("ai-routing", routing.executorThreads(),
+                routing.queueCapacity());
+        return ChatClient.create(new RoutingChatModel(endpoints, policy, executor, meterRegistry));
+    }
+
+    /**
+     * Builds an OpenAiApi for an OpenAI-compatible endpoint.
      * 
      * The key fix is configuring the ObjectMapper to not serialize null values,
      * which prevents the empty 'extra_body' field from being sent to Groq.
      */
-    @Bean
-    public OpenAiApi openAiApi() {
+    private OpenAiApi createOpenAiApi(String endpointBaseUrl, String endpointApiKey, HttpClient aiHttpClient) {
         // Create ObjectMapper that excludes null values and ignores unknown properties
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         objectMapper.findAndRegisterModules();
 
+        // Both clients share the pooled connections. The exchange timeout is the hard deadline of a blocking
+        // call: the request is cancelled and its connection closed when it expires.
+        Duration timeout = Duration.ofSeconds(timeoutSeconds);
+        ReactorNettyClientRequestFactory requestFactory = new ReactorNettyClientRequestFactory(aiHttpClient);
+        requestFactory.setExchangeTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+
         // Build RestClient with custom message converter
-        RestClient.Builder restClientBuilder = RestClient.builder();
+        RestClient.Builder restClientBuilder = RestClient.builder().requestFactory(requestFactory);
         restClientBuilder.messageConverters(converters -> {
             converters.removeIf(MappingJackson2HttpMessageConverter.class::isInstance);
             converters.add(new MappingJackson2HttpMessageConverter(objectMapper));
         });
 
-        // Create OpenAiApi with custom RestClient
-        WebClient.Builder webClientBuilder = WebClient.builder();
-        return new OpenAiApi(baseUrl, apiKey, restClientBuilder, webClientBuilder);
+        // Create OpenAiApi with custom RestClient; 429 responses carry Retry-After back to the call limiter
+        WebClient.Builder webClientBuilder = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(aiHttpClient));
+        return new OpenAiApi(endpointBaseUrl, endpointApiKey, restClientBuilder, webClientBuilder,
+                new RateLimitAwareResponseErrorHandler());
     }
 
     /**
-     * Creates a custom OpenAiChatModel that uses our Groq-compatible OpenAiApi.
-     * This overrides Spring AI's auto-configured model.
+     * Builds a chat model for the given endpoint and model name.
+     * 
+     * Retries are disabled here because AssistantClient retries with its own backoff, deadline and circuit breaker.
      */
-    @Bean
-    public OpenAiChatModel openAiChatModel(OpenAiApi openAiApi) {
+    private OpenAiChatModel createChatModel(OpenAiApi api, String modelName) {
         OpenAiChatOptions options = OpenAiChatOptions.builder()
-                .withModel(model)
+                .withModel(modelName)
                 .withTemperature(temperature == null ? null : temperature.doubleValue())
                 .build();
 
-        return new OpenAiChatModel(openAiApi, options);
-    }
-
-    /**
-     * Creates the ChatClient using our custom OpenAiChatModel.
-     */
-    @Bean
-    public ChatClient chatClient(OpenAiChatModel chatModel) {
-        return ChatClient.create(chatModel);
+        RetryTemplate noRetry = RetryTemplate.builder().maxAttempts(1).build();
+        return new OpenAiChatModel(api, options, null, noRetry);
     }
 }
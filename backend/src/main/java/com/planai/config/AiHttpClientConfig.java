@@ -0,0 +1,86 @@
+package com.planai.config;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * HTTP client for calls to the AI provider, shared by the blocking RestClient and the streaming WebClient of
+ * {@link org.springframework.ai.openai.api.OpenAiApi}.
+ *
+ * Connections come from a bounded, metered pool and are kept alive between calls, so most chat calls skip the
+ * TCP and TLS handshakes. Over TLS the client negotiates HTTP/2 where the provider supports it and multiplexes
+ * concurrent calls on pooled connections; the shared default SSL context resumes TLS sessions when a new
+ * connection is needed. Pool gauges are published as {@code reactor.netty.connection.provider.*} with the
+ * {@code name} tag {@value #POOL_NAME}; a full pool shows up as pending acquisitions rather than hidden latency.
+ */
+@Configuration
+public class AiHttpClientConfig {
+
+    static final String POOL_NAME = "planai-ai";
+
+    @Value("${app.ai.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.ai.http.pending-acquire-max-count:200}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${app.ai.http.pending-acquire-timeout-seconds:10}")
+    private long pendingAcquireTimeoutSeconds;
+
+    @Value("${app.ai.http.max-idle-seconds:30}")
+    private long maxIdleSeconds;
+
+    @Value("${app.ai.http.max-life-minutes:5}")
+    private long maxLifeMinutes;
+
+    @Value("${app.ai.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.ai.http.http2:true}")
+    private boolean http2;
+
+    /**
+     * Creates the connection pool for AI provider calls.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider aiConnectionProvider() {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofSeconds(pendingAcquireTimeoutSeconds))
+                // Close idle connections before the provider's load balancer silently drops them
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                // Recycle connections so DNS changes on the provider side are picked up
+                .maxLifeTime(Duration.ofMinutes(maxLifeMinutes))
+                .evictInBackground(Duration.ofSeconds(maxIdleSeconds))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Creates the pooled HTTP client for AI provider calls. Response deadlines are set per client by
+     * {@link AiConfig}, so they follow {@code app.ai.timeout-seconds}.
+     */
+    @Bean
+    public HttpClient aiHttpClient(ConnectionProvider aiConnectionProvider) {
+        HttpProtocol[] protocols = http2
+                ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.HTTP11};
+        return HttpClient.create(aiConnectionProvider)
+                .protocol(protocols)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .keepAlive(true)
+                .compress(true)
+                // Request path is the URI tag; the provider's endpoints are a small fixed set
+                .metrics(true, Function.identity());
+    }
+}
@@ -0,0 +1,65 @@
+package com.planai.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for routing AI calls over several OpenAI-compatible endpoints ({@code app.ai.routing.*}).
+ *
+ * The endpoint configured under {@code spring.ai.openai} is always the primary; the endpoints listed here are
+ * added next to it. Bound as properties rather than {@code @Value} fields because the endpoints form a list.
+ *
+ * @param enabled         Whether to route over the primary and the additional endpoints.
+ * @param primaryWeight   Relative share of calls that start on the primary endpoint.
+ * @param endpoints       The additional endpoints.
+ * @param hedge           Hedging settings.
+ * @param ejection        Health-based ejection settings.
+ * @param executorThreads Threads racing endpoint calls; each routed call uses one, or two while hedged.
+ * @param queueCapacity   Endpoint calls waiting for a thread; beyond it calls run unhedged on the caller thread.
+ */
+@ConfigurationProperties(prefix = "app.ai.routing")
+public record AiRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1") int primaryWeight,
+        @DefaultValue List<Endpoint> endpoints,
+        @DefaultValue Hedge hedge,
+        @DefaultValue Ejection ejection,
+        @DefaultValue("16") int executorThreads,
+        @DefaultValue("100") int queueCapacity) {
+
+    /**
+     * An additional OpenAI-compatible endpoint.
+     *
+     * @param name    Name used in logs and metric tags.
+     * @param baseUrl The API base URL.
+     * @param apiKey  The API key.
+     * @param model   The model to call; the primary's model when not set.
+     * @param weight  Relative share of calls that start on this endpoint.
+     */
+    public record Endpoint(String name, String baseUrl, String apiKey, String model, @DefaultValue("1") int weight) {
+    }
+
+    /**
+     * @param enabled     Whether to send a hedge request when the first endpoint is slow.
+     * @param percentile  Latency percentile of the first endpoint after which to hedge.
+     * @param minDelayMs  Lower bound of the hedge delay.
+     * @param maxDelayMs  Upper bound of the hedge delay, used until enough latencies are recorded.
+     */
+    public record Hedge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("500") long minDelayMs,
+            @DefaultValue("10000") long maxDelayMs) {
+    }
+
+    /**
+     * @param failureThreshold Consecutive transient failures after which an endpoint is ejected.
+     * @param durationSeconds  How long an ejected endpoint receives no calls.
+     */
+    public record Ejection(
+            @DefaultValue("3") int failureThreshold,
+            @DefaultValue("30") long durationSeconds) {
+    }
+}
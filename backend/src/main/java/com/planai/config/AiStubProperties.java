@@ -0,0 +1,50 @@
+package com.planai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import com.planai.service.ai.StubChatModel;
+
+/**
+ * Settings of the stub chat model used by the {@code stub-ai} profile ({@code app.ai.stub.*}).
+ *
+ * @param mode                Where answers come from: SYNTHETIC, REPLAY or RECORD.
+ * @param cassette            The cassette file, one recorded exchange per line.
+ * @param fallbackToSynthetic Whether REPLAY synthesizes answers for prompts missing from the cassette.
+ * @param seed                Seed of the latency sequence and the synthetic answers.
+ * @param latency             Simulated latency of stubbed answers.
+ * @param plan                Size of synthetic plans.
+ * @param chatWords           Words per synthetic chat or summary answer.
+ */
+@ConfigurationProperties(prefix = "app.ai.stub")
+public record AiStubProperties(
+        @DefaultValue("SYNTHETIC") StubChatModel.Mode mode,
+        @DefaultValue("cassettes/planai.jsonl") String cassette,
+        @DefaultValue("false") boolean fallbackToSynthetic,
+        @DefaultValue("42") long seed,
+        @DefaultValue Latency latency,
+        @DefaultValue Plan plan,
+        @DefaultValue("120") int chatWords) {
+
+    /**
+     * @param firstTokenMs Median time to the first token.
+     * @param sigma        Log-normal spread of the first-token latency; 0 for a fixed latency.
+     * @param perTokenMs   Time per generated token.
+     */
+    public record Latency(
+            @DefaultValue("400") long firstTokenMs,
+            @DefaultValue("0.5") double sigma,
+            @DefaultValue("5") long perTokenMs) {
+    }
+
+    /**
+     * @param epics          Epics per plan.
+     * @param storiesPerEpic User stories per epic.
+     * @param tasksPerStory  Tasks per user story.
+     */
+    public record Plan(
+            @DefaultValue("5") int epics,
+            @DefaultValue("3") int storiesPerEpic,
+            @DefaultValue("4") int tasksPerStory) {
+    }
+}
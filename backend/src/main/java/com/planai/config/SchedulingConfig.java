@@ -0,0 +1,12 @@
+package com.planai.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} housekeeping jobs, such as sweeping expired persistent cache entries.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package com.planai.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.service.ai.StubChatModel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the provider with a stub chat model under the {@code stub-ai} profile, so chat and extraction can be
+ * load-tested and profiled without a Groq key or network access.
+ * 
+ * Everything behind the chat model (limiter, retries, circuit breaker, caching) stays active, so measurements
+ * cover the application's own overhead with a controlled provider latency.
+ */
+@Configuration
+@Profile("stub-ai")
+@EnableConfigurationProperties(AiStubProperties.class)
+public class StubAiConfig {
+
+    /**
+     * Creates the stub chat model, which AiConfig puts in place of the OpenAI model; the OpenAI model is only
+     * called when recording a cassette.
+     */
+    @Bean
+    public StubChatModel stubChatModel(AiStubProperties stub, OpenAiChatModel openAiChatModel,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        StubChatModel.Settings settings = new StubChatModel.Settings(
+                stub.mode(),
+                Path.of(stub.cassette()),
+                stub.fallbackToSynthetic(),
+                Duration.ofMillis(stub.latency().firstTokenMs()),
+                stub.latency().sigma(),
+                Duration.ofMillis(stub.latency().perTokenMs()),
+                stub.seed(),
+                stub.plan().epics(),
+                stub.plan().storiesPerEpic(),
+                stub.plan().tasksPerStory(),
+                stub.chatWords());
+        return new StubChatModel(settings, openAiChatModel, objectMapper, meterRegistry);
+    }
+}
@@ -1,23 +1,33 @@
 package com.planai.controller;
 
+import java.net.URI;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.planai.model.dto.request.ChatRequest;
 import com.planai.model.dto.response.ChatResponse;
+import com.planai.model.dto.response.ChatStreamEvent;
 import com.planai.model.dto.response.ConversationResponse;
+import com.planai.model.dto.response.ExtractionJobResponse;
+import com.planai.model.dto.response.ExtractionStreamEvent;
 import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.dto.response.TokenUsageResponse;
+import com.planai.model.enums.ExtractionModeEnum;
 import com.planai.mapper.ConversationMapper;
 import com.planai.repository.ConversationRepository;
 import com.planai.service.AiService;
+import com.planai.service.ExtractionJobService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -26,6 +36,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 
 /**
  * REST controller for AI-powered chat and plan extraction endpoints.
@@ -37,6 +48,7 @@ import lombok.RequiredArgsConstructor;
 public class AiController {
 
     private final AiService aiService;
+    private final ExtractionJobService extractionJobService;
     private final ConversationRepository conversationRepository;
     private final ConversationMapper conversationMapper;
 
@@ -57,6 +69,8 @@ public class AiController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Message processed successfully"),
             @ApiResponse(responseCode = "404", description = "Project or conversation not found"),
+            @ApiResponse(responseCode = "429", description = "AI calls are rate limited or the project's daily " +
+                    "token budget is used up; retry after Retry-After"),
             @ApiResponse(responseCode = "503", description = "AI service unavailable or error")
     })
     public ResponseEntity<ChatResponse> chat(
@@ -65,6 +79,34 @@ public class AiController {
         return ResponseEntity.ok(aiService.chat(projectId, request));
     }
 
+    /**
+     * Send a message to the AI planning assistant and stream the response as Server-Sent Events.
+     * Events are named after their type: "conversation" first, then one "token" per chunk,
+     * and finally "done" (with the full response) or "error".
+     *
+     * @param projectId The ID of the project for this conversation.
+     * @param request   The chat request containing the message and optional conversation ID.
+     * @return A stream of Server-Sent Events carrying the assistant response.
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream a message exchange with the AI planning assistant",
+            description = "Sends a user message to the AI and streams the assistant's response token by token " +
+                    "as Server-Sent Events. The assistant message is saved once the stream completes."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Response stream started"),
+            @ApiResponse(responseCode = "404", description = "Project or conversation not found")
+    })
+    public Flux<ServerSentEvent<ChatStreamEvent>> streamChat(
+            @Parameter(description = "The project ID") @PathVariable Long projectId,
+            @Valid @RequestBody ChatRequest request) {
+        return aiService.streamChat(projectId, request)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name().toLowerCase())
+                        .build());
+    }
+
     /**
      * Get all conversations for a project.
      *
@@ -100,24 +142,125 @@ public class AiController {
     /**
      * Extract a structured plan from all conversations in a project.
      * This will analyze the conversation history and create epics, user stories, and tasks.
-     * Note: This replaces any existing plan (epics, stories, tasks) in the project.
+     * Note: In FULL mode the extracted plan is merged into the existing one: matching epics, stories and tasks
+     * keep their IDs, statuses and estimates, and items no longer in the extraction are deleted.
+     * INCREMENTAL mode only sends the messages since the last extraction and applies the resulting changes.
+     * FAN_OUT mode rebuilds the plan like FULL, but generates the epics first and breaks them down in parallel.
+     * With async=true the extraction is queued and a 202 response with the job is returned immediately.
      *
      * @param projectId The ID of the project to extract the plan for.
-     * @return The updated project details including the generated plan.
+     * @param mode      The extraction mode, FULL by default.
+     * @param async     Whether to run the extraction as a background job.
+     * @return The updated project details including the generated plan, or the queued job when async.
      */
     @PostMapping("/extract-plan")
     @Operation(
             summary = "Extract a structured plan from conversations",
             description = "Analyzes all conversation history for the project and generates a structured plan " +
-                    "with epics, user stories, and tasks. WARNING: This replaces any existing plan."
+                    "with epics, user stories, and tasks. WARNING: FULL mode deletes existing items that are " +
+                    "no longer part of the extracted plan; matching items keep their IDs, statuses and estimates. " +
+                    "INCREMENTAL mode sends the current plan plus messages since the last extraction and applies " +
+                    "only the changes. FAN_OUT mode merges like FULL but generates the epic outline first and " +
+                    "the stories and tasks of each epic in parallel. With async=true the request returns 202 " +
+                    "with a job to poll at /extraction-jobs/{jobId}."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Plan extracted successfully"),
+            @ApiResponse(responseCode = "202", description = "Extraction job queued"),
             @ApiResponse(responseCode = "404", description = "Project not found"),
+            @ApiResponse(responseCode = "429", description = "AI calls are rate limited or the project's daily " +
+                    "token budget is used up; retry after Retry-After"),
+            @ApiResponse(responseCode = "503", description = "AI service unavailable, no conversations to analyze " +
+                    "or too many extractions queued")
+    })
+    public ResponseEntity<?> extractPlan(
+            @Parameter(description = "The project ID") @PathVariable Long projectId,
+            @Parameter(description = "FULL, INCREMENTAL or FAN_OUT") @RequestParam(defaultValue = "FULL")
+            ExtractionModeEnum mode,
+            @Parameter(description = "Run as a background job") @RequestParam(defaultValue = "false")
+            boolean async) {
+        if (!async) {
+            return ResponseEntity.ok(aiService.extractPlan(projectId, mode));
+        }
+        ExtractionJobResponse job = extractionJobService.submit(projectId, mode);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/projects/" + projectId + "/extraction-jobs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Get the state of an asynchronous plan extraction job.
+     *
+     * @param projectId The ID of the project the job belongs to.
+     * @param jobId     The ID of the job.
+     * @return The job state, phase timings and, once it has succeeded, the resulting plan.
+     */
+    @GetMapping("/extraction-jobs/{jobId}")
+    @Operation(
+            summary = "Get a plan extraction job",
+            description = "Returns the state of an asynchronous extraction, the duration of each completed phase " +
+                    "and, once it has succeeded, the updated project plan."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Job not found or expired")
+    })
+    public ResponseEntity<ExtractionJobResponse> getExtractionJob(
+            @Parameter(description = "The project ID") @PathVariable Long projectId,
+            @Parameter(description = "The job ID") @PathVariable String jobId) {
+        return ResponseEntity.ok(extractionJobService.getJob(projectId, jobId));
+    }
+
+    /**
+     * Extract a structured plan from all conversations in a project and stream progress as Server-Sent Events.
+     * Each epic is merged into the plan as soon as the AI has finished generating it and is pushed as an "epic"
+     * event; a final "done" event carries the updated project, or an "error" event reports a failure.
+     *
+     * @param projectId The ID of the project to extract the plan for.
+     * @return A stream of Server-Sent Events reporting extraction progress.
+     */
+    @PostMapping(value = "/extract-plan/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Extract a structured plan from conversations, streaming progress",
+            description = "Runs a FULL extraction while the AI response is still being generated: every completed " +
+                    "epic is merged and pushed immediately. Epics that are no longer part of the plan are removed " +
+                    "when the extraction completes."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Extraction stream started"),
+            @ApiResponse(responseCode = "404", description = "Project not found"),
+            @ApiResponse(responseCode = "409", description = "Another extraction of the project is in progress"),
             @ApiResponse(responseCode = "503", description = "AI service unavailable or no conversations to analyze")
     })
-    public ResponseEntity<ProjectDetailResponse> extractPlan(
+    public Flux<ServerSentEvent<ExtractionStreamEvent>> streamExtractPlan(
             @Parameter(description = "The project ID") @PathVariable Long projectId) {
-        return ResponseEntity.ok(aiService.extractPlan(projectId));
+        return aiService.streamExtractPlan(projectId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name().toLowerCase())
+                        .build());
+    }
+
+    /**
+     * Get the AI token usage of a project.
+     *
+     * @param projectId The ID of the project.
+     * @param days      How many days of usage to return, including today.
+     * @return Today's usage against the daily budget, the usage of the last extraction and the usage per day.
+     */
+    @GetMapping("/token-usage")
+    @Operation(
+            summary = "Get the AI token usage of a project",
+            description = "Returns the tokens the project used today against its daily budget, the prompt and " +
+                    "completion tokens of the last plan extraction and the usage per day (UTC)."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Token usage retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Project not found")
+    })
+    public ResponseEntity<TokenUsageResponse> getTokenUsage(
+            @Parameter(description = "The project ID") @PathVariable Long projectId,
+            @Parameter(description = "Number of days to return, including today") @RequestParam(defaultValue = "30")
+            int days) {
+        return ResponseEntity.ok(aiService.getTokenUsage(projectId, days));
     }
 }
@@ -0,0 +1,23 @@
+package com.planai.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a project has used up its daily AI token budget.
+ * Returns HTTP 429 Too Many Requests with a Retry-After header pointing at the next budget day.
+ */
+@Getter
+public class AiBudgetExceededException extends ApiException implements RetryableApiException {
+
+    private static final HttpStatus STATUS = HttpStatus.TOO_MANY_REQUESTS;
+    private static final String ERROR_CODE = "AI_BUDGET_EXCEEDED";
+
+    private final long retryAfterSeconds;
+
+    public AiBudgetExceededException(String message, long retryAfterSeconds) {
+        super(message, STATUS, ERROR_CODE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.planai.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when an AI call cannot be admitted in time because of local limits or provider rate limits.
+ * Returns HTTP 429 Too Many Requests with a Retry-After header.
+ */
+@Getter
+public class AiRateLimitException extends ApiException implements RetryableApiException {
+
+    private static final HttpStatus STATUS = HttpStatus.TOO_MANY_REQUESTS;
+    private static final String ERROR_CODE = "AI_RATE_LIMITED";
+
+    private final long retryAfterSeconds;
+
+    public AiRateLimitException(String message, long retryAfterSeconds) {
+        super(message, STATUS, ERROR_CODE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
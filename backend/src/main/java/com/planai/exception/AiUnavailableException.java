@@ -0,0 +1,23 @@
+package com.planai.exception;
+
+import org.springframework.http.HttpStatus;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown without calling the AI provider while it is considered down (the circuit breaker is open).
+ * Returns HTTP 503 Service Unavailable with a Retry-After header.
+ */
+@Getter
+public class AiUnavailableException extends ApiException implements RetryableApiException {
+
+    private static final HttpStatus STATUS = HttpStatus.SERVICE_UNAVAILABLE;
+    private static final String ERROR_CODE = "AI_UNAVAILABLE";
+
+    private final long retryAfterSeconds;
+
+    public AiUnavailableException(String message, long retryAfterSeconds) {
+        super(message, STATUS, ERROR_CODE);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
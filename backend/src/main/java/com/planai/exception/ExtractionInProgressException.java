@@ -0,0 +1,17 @@
+package com.planai.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a plan extraction cannot start because another extraction of the same project is running.
+ * Returns HTTP 409 Conflict.
+ */
+public class ExtractionInProgressException extends ApiException {
+
+    private static final HttpStatus STATUS = HttpStatus.CONFLICT;
+    private static final String ERROR_CODE = "EXTRACTION_IN_PROGRESS";
+
+    public ExtractionInProgressException(String message) {
+        super(message, STATUS, ERROR_CODE);
+    }
+}
@@ -2,6 +2,7 @@ package com.planai.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -31,6 +32,11 @@ public class GlobalExceptionHandler {
                 .path(request.getRequestURI())
                 .build();
 
+        if (ex instanceof RetryableApiException retryableException) {
+            return ResponseEntity.status(ex.getStatus())
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryableException.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        }
         return ResponseEntity.status(ex.getStatus()).body(errorResponse);
     }
 
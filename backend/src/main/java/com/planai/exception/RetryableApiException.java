@@ -0,0 +1,12 @@
+package com.planai.exception;
+
+/**
+ * An API error the client may retry after a delay, returned with a Retry-After header.
+ */
+public interface RetryableApiException {
+
+    /**
+     * @return Seconds the client should wait before retrying.
+     */
+    long getRetryAfterSeconds();
+}
@@ -0,0 +1,30 @@
+package com.planai.model.dto.response;
+
+import com.planai.model.enums.ChatStreamEventTypeEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single Server-Sent Event emitted by the streaming chat endpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatStreamEvent {
+
+    private ChatStreamEventTypeEnum type;
+
+    private Long conversationId;
+
+    private String content;
+
+    /**
+     * On ERROR events for rate limiting, an exhausted budget or a provider outage: seconds to wait before
+     * retrying, as the Retry-After header of the blocking endpoints.
+     */
+    private Long retryAfterSeconds;
+}
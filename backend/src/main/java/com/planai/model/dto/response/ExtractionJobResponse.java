@@ -0,0 +1,44 @@
+package com.planai.model.dto.response;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import com.planai.model.enums.ExtractionJobStateEnum;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.model.enums.ExtractionPhaseEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of an asynchronous plan extraction job, including the duration of each completed phase in milliseconds
+ * and, once it has succeeded, the resulting project plan.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExtractionJobResponse {
+
+    private String id;
+
+    private Long projectId;
+
+    private ExtractionModeEnum mode;
+
+    private ExtractionJobStateEnum state;
+
+    private OffsetDateTime submittedAt;
+
+    private OffsetDateTime startedAt;
+
+    private OffsetDateTime finishedAt;
+
+    private Map<ExtractionPhaseEnum, Long> phaseTimingsMs;
+
+    private ProjectDetailResponse result;
+
+    private String error;
+}
@@ -0,0 +1,34 @@
+package com.planai.model.dto.response;
+
+import com.planai.model.enums.ExtractionStreamEventTypeEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single Server-Sent Event emitted by the streaming plan extraction endpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExtractionStreamEvent {
+
+    private ExtractionStreamEventTypeEnum type;
+
+    private Integer epicIndex;
+
+    private EpicResponse epic;
+
+    private ProjectDetailResponse project;
+
+    private String content;
+
+    /**
+     * On ERROR events for rate limiting, an exhausted budget or a provider outage: seconds to wait before
+     * retrying, as the Retry-After header of the blocking endpoints.
+     */
+    private Long retryAfterSeconds;
+}
@@ -20,4 +20,8 @@ public class MessageResponse {
     private MessageRoleEnum role;
 
     private String content;
+
+    private Integer promptTokens;
+
+    private Integer completionTokens;
 }
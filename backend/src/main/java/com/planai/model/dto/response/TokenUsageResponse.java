@@ -0,0 +1,48 @@
+package com.planai.model.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * AI token usage of a project: today's usage against its daily budget, the usage of the last plan extraction
+ * and the usage per day (UTC).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageResponse {
+
+    private Long projectId;
+
+    /** Tokens the project may use per day; 0 when budgets are not enforced. */
+    private long dailyBudgetTokens;
+
+    private long usedTodayTokens;
+
+    private Long lastExtractionPromptTokens;
+
+    private Long lastExtractionCompletionTokens;
+
+    private List<DailyUsage> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyUsage {
+
+        private LocalDate date;
+
+        private long promptTokens;
+
+        private long completionTokens;
+
+        private long calls;
+    }
+}
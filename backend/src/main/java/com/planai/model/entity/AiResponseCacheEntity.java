@@ -0,0 +1,59 @@
+package com.planai.model.entity;
+
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.planai.model.enums.AiEndpointEnum;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * JPA entity representing a cached AI response, keyed by the SHA-256 hash of the model, options and normalized
+ * prompt. Maps to the 'ai_response_cache' table in the database.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "response")
+@Entity
+@Table(name = "ai_response_cache")
+public class AiResponseCacheEntity {
+
+    @Id
+    @Column(name = "key_hash", length = 64)
+    @EqualsAndHashCode.Include
+    private String keyHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AiEndpointEnum endpoint;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(nullable = false, length = 1000000)
+    private String response;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false)
+    private OffsetDateTime expiresAt;
+}
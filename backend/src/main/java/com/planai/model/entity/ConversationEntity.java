@@ -52,6 +52,12 @@ public class ConversationEntity {
     @Column(nullable = false, updatable = false)
     private OffsetDateTime createdAt;
 
+    @Column(length = 10000)
+    private String summary;
+
+    @Column(name = "summarized_up_to_message_id")
+    private Long summarizedUpToMessageId;
+
     @Builder.Default
     @OneToMany(mappedBy = "conversation", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<MessageEntity> messages = new ArrayList<>();
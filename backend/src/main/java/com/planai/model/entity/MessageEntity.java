@@ -58,5 +58,10 @@ public class MessageEntity {
 
     @Column(nullable = false, length = 10000)
     private String content;
+
+    // Provider token usage of the call that generated an assistant message; null for user messages
+    private Integer promptTokens;
+
+    private Integer completionTokens;
 }
 
@@ -33,7 +33,7 @@ import lombok.ToString;
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = { "epics", "conversations" })
+@ToString(exclude = { "epics", "conversations", "tokenUsage" })
 @Entity
 @Table(name = "projects")
 public class ProjectEntity {
@@ -52,6 +52,29 @@ public class ProjectEntity {
     @Column(nullable = false, updatable = false)
     private OffsetDateTime createdAt;
 
+    @Column(name = "extracted_up_to_message_id")
+    private Long extractedUpToMessageId;
+
+    @Column(name = "last_extracted_at")
+    private OffsetDateTime lastExtractedAt;
+
+    /**
+     * Bumped in the database by every change of the plan; never written from the entity, so a stale copy cannot
+     * overwrite a concurrent bump. Null until the plan first changes.
+     */
+    @Column(name = "plan_version", insertable = false, updatable = false)
+    private Long planVersion;
+
+    /** The plan version the last extraction left the plan at. */
+    @Column(name = "extracted_plan_version")
+    private Long extractedPlanVersion;
+
+    @Column(name = "last_extraction_prompt_tokens")
+    private Long lastExtractionPromptTokens;
+
+    @Column(name = "last_extraction_completion_tokens")
+    private Long lastExtractionCompletionTokens;
+
     @Builder.Default
     @OneToMany(mappedBy = "project", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<EpicEntity> epics = new ArrayList<>();
@@ -60,6 +83,10 @@ public class ProjectEntity {
     @OneToMany(mappedBy = "project", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ConversationEntity> conversations = new ArrayList<>();
 
+    @Builder.Default
+    @OneToMany(mappedBy = "project", fetch = FetchType.LAZY, cascade = CascadeType.REMOVE)
+    private List<ProjectTokenUsageEntity> tokenUsage = new ArrayList<>();
+
     public void addEpic(EpicEntity epic) {
         epics.add(epic);
         epic.setProject(this);
@@ -0,0 +1,10 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the features that call the AI, used to configure and tag calls per feature.
+ */
+public enum AiEndpointEnum {
+    CHAT,
+    EXTRACT_PLAN,
+    SUMMARY
+}
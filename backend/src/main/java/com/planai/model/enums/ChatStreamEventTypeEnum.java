@@ -0,0 +1,11 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the type of an event pushed on the streaming chat endpoint.
+ */
+public enum ChatStreamEventTypeEnum {
+    CONVERSATION,
+    TOKEN,
+    DONE,
+    ERROR
+}
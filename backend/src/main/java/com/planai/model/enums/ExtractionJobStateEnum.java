@@ -0,0 +1,11 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the state of an asynchronous plan extraction job.
+ */
+public enum ExtractionJobStateEnum {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
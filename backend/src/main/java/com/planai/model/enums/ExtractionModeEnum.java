@@ -0,0 +1,12 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing how a plan is extracted from a project's conversations: FULL re-reads every
+ * conversation and replaces the plan, INCREMENTAL applies changes from messages since the last extraction, FAN_OUT
+ * re-reads every conversation like FULL but generates the epic outline first and decomposes the epics in parallel.
+ */
+public enum ExtractionModeEnum {
+    FULL,
+    INCREMENTAL,
+    FAN_OUT
+}
@@ -0,0 +1,11 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the phases of a plan extraction, in the order they run.
+ */
+public enum ExtractionPhaseEnum {
+    PREPARE,
+    GENERATION,
+    PARSE,
+    APPLY
+}
@@ -0,0 +1,10 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the type of an event pushed on the streaming plan extraction endpoint.
+ */
+public enum ExtractionStreamEventTypeEnum {
+    EPIC,
+    DONE,
+    ERROR
+}
@@ -0,0 +1,10 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing how the project plan is rendered into AI prompts: MARKDOWN as a labelled outline,
+ * COMPACT as one indexed line per item with abbreviated attributes and default values omitted.
+ */
+public enum ProjectContextFormatEnum {
+    MARKDOWN,
+    COMPACT
+}
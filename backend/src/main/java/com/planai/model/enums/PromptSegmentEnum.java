@@ -0,0 +1,14 @@
+package com.planai.model.enums;
+
+/**
+ * Enumeration representing the segments of a chat prompt, in prompt order from the most to the least stable:
+ * static instructions, the project plan snapshot, the conversation summary, the conversation turns and the new
+ * request.
+ */
+public enum PromptSegmentEnum {
+    INSTRUCTIONS,
+    PLAN,
+    SUMMARY,
+    HISTORY,
+    REQUEST
+}
@@ -0,0 +1,27 @@
+package com.planai.repository;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.planai.model.entity.AiResponseCacheEntity;
+
+/**
+ * Repository interface for AiResponseCacheEntity operations.
+ */
+public interface AiResponseCacheRepository extends JpaRepository<AiResponseCacheEntity, String> {
+
+    /**
+     * Delete all cached responses that expired before the given time.
+     *
+     * @param now The current time.
+     * @return The number of deleted entries.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AiResponseCacheEntity r WHERE r.expiresAt < :now")
+    int deleteExpired(OffsetDateTime now);
+}
@@ -5,6 +5,8 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import com.planai.model.entity.ConversationEntity;
 
@@ -20,6 +22,14 @@ public interface ConversationRepository extends JpaRepository<ConversationEntity
      */
     List<ConversationEntity> findByProjectIdOrderByCreatedAtDesc(Long projectId);
 
+    /**
+     * Find all ConversationEntity records by project ID, oldest first.
+     *
+     * @param projectId The ID of the project.
+     * @return List of ConversationEntity objects sorted by creation date, then ID, ascending.
+     */
+    List<ConversationEntity> findByProjectIdOrderByCreatedAtAscIdAsc(Long projectId);
+
     /**
      * Find a ConversationEntity by its ID, including its associated messages.
      *
@@ -28,4 +38,39 @@ public interface ConversationRepository extends JpaRepository<ConversationEntity
      */
     @EntityGraph(attributePaths = "messages")
     Optional<ConversationEntity> findById(Long id);
+
+    /**
+     * Find the rolling summary of a conversation without loading its messages.
+     *
+     * @param id The ID of the conversation.
+     * @return An Optional containing the summary and its checkpoint if the conversation exists.
+     */
+    @Query("SELECT c.summary AS summary, c.summarizedUpToMessageId AS summarizedUpToMessageId, "
+            + "c.project.id AS projectId FROM ConversationEntity c WHERE c.id = :id")
+    Optional<SummaryView> findSummaryById(Long id);
+
+    /**
+     * Store a new rolling summary, only if the checkpoint has not moved since the summary was computed.
+     *
+     * @param id                 The ID of the conversation.
+     * @param summary            The updated summary.
+     * @param upToMessageId      The ID of the last message covered by the updated summary.
+     * @param expectedCheckpoint The checkpoint the summary was computed from; 0 when there was none.
+     * @return The number of updated rows: 1 on success, 0 if another update won the race.
+     */
+    @Modifying
+    @Query("UPDATE ConversationEntity c SET c.summary = :summary, c.summarizedUpToMessageId = :upToMessageId "
+            + "WHERE c.id = :id AND COALESCE(c.summarizedUpToMessageId, 0) = :expectedCheckpoint")
+    int updateSummary(Long id, String summary, Long upToMessageId, Long expectedCheckpoint);
+
+    /**
+     * Projection of the rolling summary fields of a conversation.
+     */
+    interface SummaryView {
+        String getSummary();
+
+        Long getSummarizedUpToMessageId();
+
+        Long getProjectId();
+    }
 }
@@ -1,8 +1,11 @@
 package com.planai.repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.planai.model.entity.EpicEntity;
 
@@ -18,4 +21,34 @@ public interface EpicRepository extends JpaRepository<EpicEntity, Long> {
      * @return List of EpicEntity objects sorted by order ascending.
      */
     List<EpicEntity> findByProjectIdOrderByOrderIndexAsc(Long projectId);
+
+    /**
+     * Find the IDs and titles of a project's epics, without loading the epics themselves. Used to match an
+     * extracted epic before only the matched epic's subtree is loaded.
+     *
+     * @param projectId The ID of the project.
+     * @return Epic titles sorted by order ascending.
+     */
+    @Query("SELECT e.id AS id, e.title AS title FROM EpicEntity e WHERE e.project.id = :projectId "
+            + "ORDER BY e.orderIndex ASC, e.id ASC")
+    List<TitleView> findTitlesByProjectId(Long projectId);
+
+    /**
+     * Find an EpicEntity by its ID, including its stories. Tasks are loaded lazily.
+     *
+     * @param id The ID of the epic.
+     * @return An Optional containing the EpicEntity with its stories if found, otherwise empty.
+     */
+    @EntityGraph(attributePaths = "stories")
+    @Query("SELECT e FROM EpicEntity e WHERE e.id = :id")
+    Optional<EpicEntity> findByIdWithStories(Long id);
+
+    /**
+     * Projection of an epic's ID and title.
+     */
+    interface TitleView {
+        Long getId();
+
+        String getTitle();
+    }
 }
@@ -1,10 +1,20 @@
 package com.planai.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.planai.model.entity.MessageEntity;
+import com.planai.model.enums.MessageRoleEnum;
+
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for MessageEntity operations.
@@ -12,18 +22,77 @@ import com.planai.model.entity.MessageEntity;
 public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
 
     /**
-     * Find all MessageEntity records by conversation ID, ordered by createdAt in ascending order.
+     * Find the messages of a conversation newer than the given message ID, ordered by createdAt in ascending order.
      *
      * @param conversationId The ID of the conversation.
+     * @param afterMessageId Only messages with a greater ID are returned; use 0 for all messages.
      * @return List of MessageEntity objects sorted by creation date ascending.
      */
-    List<MessageEntity> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
+    List<MessageEntity> findByConversationIdAndIdGreaterThanOrderByCreatedAtAscIdAsc(Long conversationId,
+            Long afterMessageId);
 
     /**
-     * Find the latest 10 messages for a conversation, ordered by newest first.
+     * Find a page of the messages of a conversation newer than the given message ID, ordered by newest first.
      *
      * @param conversationId The ID of the conversation.
-     * @return List of the most recent messages.
+     * @param afterMessageId Only messages with a greater ID are returned; use 0 for all messages.
+     * @param pageable       The page to fetch.
+     * @return Slice of messages, most recent first.
+     */
+    Slice<MessageEntity> findByConversationIdAndIdGreaterThanOrderByCreatedAtDescIdDesc(Long conversationId,
+            Long afterMessageId, Pageable pageable);
+
+    /**
+     * Find the ID of the most recent message in a project.
+     *
+     * @param projectId The ID of the project.
+     * @return The highest message ID, or null if the project has no messages.
+     */
+    @Query("SELECT MAX(m.id) FROM MessageEntity m WHERE m.conversation.project.id = :projectId")
+    Long findMaxIdByProjectId(Long projectId);
+
+    /**
+     * Stream the unsummarized messages of every conversation in a project with a single query, ordered by
+     * conversation and then by time. Only the role and content are selected, so no entities are materialized.
+     * Must be consumed inside a transaction and closed after use.
+     *
+     * @param projectId     The ID of the project.
+     * @param upToMessageId Only messages with an ID up to this one are returned.
+     * @return Stream of message rows grouped by conversation, oldest conversation first.
      */
-    List<MessageEntity> findTop10ByConversationIdOrderByCreatedAtDesc(Long conversationId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT c.id AS conversationId, m.role AS role, m.content AS content "
+            + "FROM MessageEntity m JOIN m.conversation c "
+            + "WHERE c.project.id = :projectId AND m.id > COALESCE(c.summarizedUpToMessageId, 0) "
+            + "AND m.id <= :upToMessageId "
+            + "ORDER BY c.createdAt ASC, c.id ASC, m.createdAt ASC, m.id ASC")
+    Stream<HistoryView> streamHistoryByProjectId(Long projectId, Long upToMessageId);
+
+    /**
+     * Stream the messages of a project with IDs in the given range, ignoring conversation summaries. Used by
+     * incremental extraction to read only what was said since the last extraction. Must be consumed inside a
+     * transaction and closed after use.
+     *
+     * @param projectId      The ID of the project.
+     * @param afterMessageId Only messages with a greater ID are returned.
+     * @param upToMessageId  Only messages with an ID up to this one are returned.
+     * @return Stream of message rows grouped by conversation, oldest conversation first.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT c.id AS conversationId, m.role AS role, m.content AS content "
+            + "FROM MessageEntity m JOIN m.conversation c "
+            + "WHERE c.project.id = :projectId AND m.id > :afterMessageId AND m.id <= :upToMessageId "
+            + "ORDER BY c.createdAt ASC, c.id ASC, m.createdAt ASC, m.id ASC")
+    Stream<HistoryView> streamMessagesBetween(Long projectId, Long afterMessageId, Long upToMessageId);
+
+    /**
+     * Projection of a message as rendered into conversation history.
+     */
+    interface HistoryView {
+        Long getConversationId();
+
+        MessageRoleEnum getRole();
+
+        String getContent();
+    }
 }
@@ -5,7 +5,9 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.planai.model.entity.ProjectEntity;
 
@@ -42,4 +44,24 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, Long> {
     @Query("SELECT p FROM ProjectEntity p WHERE p.id = :id")
     Optional<ProjectEntity> findByIdWithHierarchy(Long id);
 
+    /**
+     * Find the plan version of a project.
+     *
+     * @param id The ID of the project.
+     * @return The plan version, 0 if the plan never changed, or null if the project does not exist.
+     */
+    @Query("SELECT COALESCE(p.planVersion, 0) FROM ProjectEntity p WHERE p.id = :id")
+    Long findPlanVersionById(Long id);
+
+    /**
+     * Increment the plan version of a project, in the caller's transaction if there is one.
+     *
+     * @param id The ID of the project.
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE projects SET plan_version = COALESCE(plan_version, 0) + 1 WHERE id = :id",
+            nativeQuery = true)
+    int incrementPlanVersion(Long id);
 }
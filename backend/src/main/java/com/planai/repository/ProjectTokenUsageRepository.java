@@ -0,0 +1,54 @@
+package com.planai.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.planai.model.entity.ProjectTokenUsageEntity;
+
+/**
+ * Repository interface for ProjectTokenUsageEntity operations.
+ */
+public interface ProjectTokenUsageRepository extends JpaRepository<ProjectTokenUsageEntity, Long> {
+
+    /**
+     * Add tokens to a project's usage of a day, without reading the row first.
+     *
+     * @param projectId        The ID of the project.
+     * @param usageDate        The day (UTC).
+     * @param promptTokens     Prompt tokens to add.
+     * @param completionTokens Completion tokens to add.
+     * @return The number of updated rows; 0 if the project has no usage row for that day yet.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProjectTokenUsageEntity u SET u.promptTokens = u.promptTokens + :promptTokens, "
+            + "u.completionTokens = u.completionTokens + :completionTokens, u.calls = u.calls + 1 "
+            + "WHERE u.project.id = :projectId AND u.usageDate = :usageDate")
+    int addUsage(Long projectId, LocalDate usageDate, long promptTokens, long completionTokens);
+
+    /**
+     * Sum the tokens a project consumed on a day.
+     *
+     * @param projectId The ID of the project.
+     * @param usageDate The day (UTC).
+     * @return The prompt and completion tokens together, 0 if there was no usage.
+     */
+    @Query("SELECT COALESCE(SUM(u.promptTokens + u.completionTokens), 0) FROM ProjectTokenUsageEntity u "
+            + "WHERE u.project.id = :projectId AND u.usageDate = :usageDate")
+    long sumTokens(Long projectId, LocalDate usageDate);
+
+    /**
+     * Find a project's daily usage since a day, oldest first.
+     *
+     * @param projectId The ID of the project.
+     * @param fromDate  The first day to include (UTC).
+     * @return The usage rows of the days with usage.
+     */
+    List<ProjectTokenUsageEntity> findByProjectIdAndUsageDateGreaterThanEqualOrderByUsageDateAsc(Long projectId,
+            LocalDate fromDate);
+}
@@ -2,7 +2,14 @@ package com.planai.service;
 
 import com.planai.model.dto.request.ChatRequest;
 import com.planai.model.dto.response.ChatResponse;
+import com.planai.model.dto.response.ChatStreamEvent;
+import com.planai.model.dto.response.ExtractionStreamEvent;
 import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.dto.response.TokenUsageResponse;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.service.ai.ExtractionProgressListener;
+
+import reactor.core.publisher.Flux;
 
 /**
  * Service for handling AI interactions using Spring AI.
@@ -19,13 +26,64 @@ public interface AiService {
      */
     ChatResponse chat(Long projectId, ChatRequest request);
 
+    /**
+     * Process a user message and stream the AI's response token by token.
+     * The assistant message is persisted once the stream completes.
+     *
+     * @param projectId The ID of the project this chat belongs to.
+     * @param request   The chat request containing the message and optional
+     *                  conversation ID.
+     * @return A stream of events: the conversation ID, the response tokens and a
+     *         final completion (or error) event.
+     */
+    Flux<ChatStreamEvent> streamChat(Long projectId, ChatRequest request);
+
     /**
      * Analyze the conversation history for a project and generate/update the
      * project plan.
      *
      * @param projectId The ID of the project to extract the plan for.
+     * @param mode      FULL to rebuild the plan from all conversations, INCREMENTAL
+     *                  to apply only the messages since the last extraction (falls back
+     *                  to FULL if the project was never extracted), or FAN_OUT to rebuild
+     *                  it by generating the epics first and their stories and tasks in
+     *                  parallel.
      * @return The updated project details including the generated Epics, Stories,
      *         and Tasks.
      */
-    ProjectDetailResponse extractPlan(Long projectId);
+    default ProjectDetailResponse extractPlan(Long projectId, ExtractionModeEnum mode) {
+        return extractPlan(projectId, mode, ExtractionProgressListener.NONE);
+    }
+
+    /**
+     * Analyze the conversation history for a project and generate/update the
+     * project plan, reporting the duration of each extraction phase.
+     *
+     * @param projectId The ID of the project to extract the plan for.
+     * @param mode      The extraction mode.
+     * @param listener  Receives each phase's duration as it completes.
+     * @return The updated project details including the generated Epics, Stories,
+     *         and Tasks.
+     */
+    ProjectDetailResponse extractPlan(Long projectId, ExtractionModeEnum mode, ExtractionProgressListener listener);
+
+    /**
+     * Extract the project plan from the streamed AI response, merging and reporting
+     * each epic as soon as it has been generated.
+     *
+     * @param projectId The ID of the project to extract the plan for.
+     * @return A stream of events: one per merged epic, then a final completion (with
+     *         the updated project details) or error event.
+     * @throws com.planai.exception.ExtractionInProgressException if another extraction of the project is running.
+     */
+    Flux<ExtractionStreamEvent> streamExtractPlan(Long projectId);
+
+    /**
+     * Get the AI token usage of a project against its daily budget.
+     *
+     * @param projectId The ID of the project.
+     * @param days      How many days of usage to return, including today.
+     * @return Today's usage, the daily budget, the usage of the last extraction and the usage per day.
+     */
+    TokenUsageResponse getTokenUsage(Long projectId, int days);
 }
@@ -0,0 +1,28 @@
+package com.planai.service;
+
+import com.planai.model.dto.response.ExtractionJobResponse;
+import com.planai.model.enums.ExtractionModeEnum;
+
+/**
+ * Interface for running plan extractions as asynchronous jobs.
+ */
+public interface ExtractionJobService {
+
+    /**
+     * Queues a plan extraction for a project.
+     *
+     * @param projectId The ID of the project to extract the plan for.
+     * @param mode      The extraction mode.
+     * @return The queued job.
+     */
+    ExtractionJobResponse submit(Long projectId, ExtractionModeEnum mode);
+
+    /**
+     * Retrieves the current state of an extraction job.
+     *
+     * @param projectId The ID of the project the job belongs to.
+     * @param jobId     The ID of the job.
+     * @return The job, with its result once it has succeeded.
+     */
+    ExtractionJobResponse getJob(Long projectId, String jobId);
+}
@@ -0,0 +1,27 @@
+package com.planai.service.ai;
+
+import com.planai.model.enums.AiEndpointEnum;
+
+/**
+ * Identifies who an outbound AI call is made for: the calling feature and, when known, the project.
+ *
+ * @param endpoint  The calling feature.
+ * @param projectId The ID of the project, or null for calls not tied to a project.
+ * @param model     The model to call instead of the configured one, or null; set when a project's token budget
+ *                  is nearly used up.
+ * @param usage     Collects the token usage of the call, or null.
+ */
+public record AiCallContext(AiEndpointEnum endpoint, Long projectId, String model, TokenUsageCollector usage) {
+
+    public static AiCallContext of(AiEndpointEnum endpoint, Long projectId) {
+        return new AiCallContext(endpoint, projectId, null, null);
+    }
+
+    public AiCallContext withModel(String model) {
+        return new AiCallContext(endpoint, projectId, model, usage);
+    }
+
+    public AiCallContext withUsage(TokenUsageCollector usage) {
+        return new AiCallContext(endpoint, projectId, model, usage);
+    }
+}
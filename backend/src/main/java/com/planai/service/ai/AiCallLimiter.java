@@ -0,0 +1,305 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.planai.exception.AiGenerationException;
+import com.planai.exception.AiRateLimitException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control for outbound AI calls: a global and a per-project concurrency limit (bulkheads), a token
+ * bucket for the request rate and a bounded wait queue.
+ *
+ * Callers wait in line for up to {@code max-wait-seconds} instead of failing, so a burst degrades into queueing.
+ * Only when the queue is full or the wait would exceed its limit is the call rejected with
+ * {@link AiRateLimitException}. A 429 from the provider pauses all admissions for its Retry-After period.
+ * Semaphores and the bucket lock are never held while sleeping, so waiting is virtual-thread friendly.
+ */
+@Component
+@Slf4j
+public class AiCallLimiter {
+
+    private final Semaphore globalPermits;
+    private final int perProjectMaxConcurrent;
+    /** Bulkheads of projects with calls waiting or in flight; an entry is removed once its last caller leaves. */
+    private final Map<Long, ProjectBulkhead> projectBulkheads = new ConcurrentHashMap<>();
+    private final TokenBucket tokenBucket;
+    private final int maxQueued;
+    private final Duration maxWait;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong providerBlockedUntil = new AtomicLong(System.nanoTime());
+    private final MeterRegistry meterRegistry;
+
+    public AiCallLimiter(MeterRegistry meterRegistry,
+            @Value("${app.ai.limits.max-concurrent:8}") int maxConcurrent,
+            @Value("${app.ai.limits.per-project-max-concurrent:4}") int perProjectMaxConcurrent,
+            @Value("${app.ai.limits.requests-per-minute:30}") double requestsPerMinute,
+            @Value("${app.ai.limits.burst:5}") int burst,
+            @Value("${app.ai.limits.max-queued:100}") int maxQueued,
+            @Value("${app.ai.limits.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.globalPermits = new Semaphore(maxConcurrent, true);
+        this.perProjectMaxConcurrent = perProjectMaxConcurrent;
+        this.tokenBucket = requestsPerMinute > 0 ? new TokenBucket(burst, requestsPerMinute / 60.0) : null;
+        this.maxQueued = maxQueued;
+        this.maxWait = Duration.ofSeconds(maxWaitSeconds);
+
+        Gauge.builder("planai.ai.limiter.queue.depth", queued, AtomicInteger::get)
+                .description("AI calls waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("planai.ai.limiter.in-flight", globalPermits,
+                        permits -> maxConcurrent - permits.availablePermits())
+                .description("AI calls currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Waits until the call may be sent.
+     *
+     * @param context Who the call is made for; calls without a project only count against the global limit.
+     * @return The permit, to be released once the call has finished.
+     * @throws AiRateLimitException if the call cannot be admitted within the maximum wait.
+     */
+    public Permit acquire(AiCallContext context) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw reject(context, "queue-full", Duration.ofSeconds(1));
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        ProjectBulkhead projectBulkhead = null;
+        boolean projectAcquired = false;
+        boolean globalAcquired = false;
+        boolean admitted = false;
+        try {
+            awaitProviderBackoff(context, deadline);
+
+            if (context.projectId() != null) {
+                projectBulkhead = retainBulkhead(context.projectId());
+                if (!projectBulkhead.permits.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    throw reject(context, "project-concurrency", Duration.ofSeconds(1));
+                }
+                projectAcquired = true;
+            }
+            if (!globalPermits.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                throw reject(context, "concurrency", Duration.ofSeconds(1));
+            }
+            globalAcquired = true;
+            if (tokenBucket != null && !tokenBucket.tryAcquire(deadline)) {
+                throw reject(context, "rate", tokenBucket.timeUntilNextToken());
+            }
+
+            Timer.builder("planai.ai.limiter.wait")
+                    .description("Time AI calls waited for admission")
+                    .tag("endpoint", context.endpoint().name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            admitted = true;
+            return new Permit(projectBulkhead);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AiGenerationException("Interrupted while waiting to call the AI provider.", exception);
+        } finally {
+            queued.decrementAndGet();
+            if (!admitted) {
+                if (globalAcquired) {
+                    globalPermits.release();
+                }
+                if (projectAcquired) {
+                    projectBulkhead.permits.release();
+                }
+                if (projectBulkhead != null) {
+                    releaseBulkhead(projectBulkhead);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pauses admissions after the provider answered 429 Too Many Requests.
+     *
+     * @param retryAfter How long the provider asked us to wait.
+     */
+    public void onProviderRateLimited(Duration retryAfter) {
+        long until = System.nanoTime() + retryAfter.toNanos();
+        providerBlockedUntil.accumulateAndGet(until, Math::max);
+        if (tokenBucket != null) {
+            tokenBucket.drain();
+        }
+        meterRegistry.counter("planai.ai.limiter.provider-rate-limited").increment();
+        log.warn("AI provider rate limited; pausing calls for {} ms", retryAfter.toMillis());
+    }
+
+    private void awaitProviderBackoff(AiCallContext context, long deadline) throws InterruptedException {
+        long blockedUntil = providerBlockedUntil.get();
+        long now = System.nanoTime();
+        if (blockedUntil <= now) {
+            return;
+        }
+        if (blockedUntil > deadline) {
+            throw reject(context, "provider-backoff", Duration.ofNanos(blockedUntil - now));
+        }
+        TimeUnit.NANOSECONDS.sleep(blockedUntil - now);
+    }
+
+    /**
+     * Returns the project's bulkhead, creating it if needed, and counts the caller as one of its users.
+     */
+    private ProjectBulkhead retainBulkhead(Long projectId) {
+        return projectBulkheads.compute(projectId, (id, bulkhead) -> {
+            ProjectBulkhead retained = bulkhead == null
+                    ? new ProjectBulkhead(id, new Semaphore(perProjectMaxConcurrent, true))
+                    : bulkhead;
+            retained.users++;
+            return retained;
+        });
+    }
+
+    /**
+     * Stops counting a caller as a user of the bulkhead and drops the bulkhead when it was the last one, at which
+     * point all of its permits are back.
+     */
+    private void releaseBulkhead(ProjectBulkhead bulkhead) {
+        projectBulkheads.computeIfPresent(bulkhead.projectId, (id, current) -> --current.users == 0 ? null : current);
+    }
+
+    private AiRateLimitException reject(AiCallContext context, String reason, Duration retryAfter) {
+        meterRegistry.counter("planai.ai.limiter.rejected", "endpoint", context.endpoint().name(), "reason", reason)
+                .increment();
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return new AiRateLimitException("The AI service is busy; try again in " + retryAfterSeconds + " seconds.",
+                retryAfterSeconds);
+    }
+
+    private long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Admission of a single call. Must be released exactly once.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final ProjectBulkhead projectBulkhead;
+        private boolean released;
+
+        private Permit(ProjectBulkhead projectBulkhead) {
+            this.projectBulkhead = projectBulkhead;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            globalPermits.release();
+            if (projectBulkhead != null) {
+                projectBulkhead.permits.release();
+                releaseBulkhead(projectBulkhead);
+            }
+        }
+    }
+
+    /**
+     * Concurrency limit of a single project, with the number of callers waiting for or holding one of its permits.
+     * The count is only changed inside the map's atomic compute calls.
+     */
+    private static final class ProjectBulkhead {
+
+        private final Long projectId;
+        private final Semaphore permits;
+        private int users;
+
+        private ProjectBulkhead(Long projectId, Semaphore permits) {
+            this.projectId = projectId;
+            this.permits = permits;
+        }
+    }
+
+    /**
+     * Token bucket refilled continuously at a fixed rate, up to its burst capacity.
+     */
+    private static final class TokenBucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(int capacity, double tokensPerSecond) {
+            this.capacity = Math.max(1, capacity);
+            this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+            this.tokens = this.capacity;
+        }
+
+        private boolean tryAcquire(long deadline) throws InterruptedException {
+            while (true) {
+                long waitNanos;
+                lock.lock();
+                try {
+                    refill();
+                    if (tokens >= 1) {
+                        tokens -= 1;
+                        return true;
+                    }
+                    waitNanos = nanosUntilNextToken();
+                } finally {
+                    lock.unlock();
+                }
+                if (System.nanoTime() + waitNanos > deadline) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+
+        private Duration timeUntilNextToken() {
+            lock.lock();
+            try {
+                refill();
+                return Duration.ofNanos(nanosUntilNextToken());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            lock.lock();
+            try {
+                refill();
+                tokens = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+
+        private long nanosUntilNextToken() {
+            if (tokens >= 1) {
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
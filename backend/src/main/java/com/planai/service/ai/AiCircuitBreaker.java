@@ -0,0 +1,193 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.planai.exception.AiUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Circuit breaker for the AI provider. After {@code failure-threshold} consecutive transient failures the
+ * circuit opens and calls fail immediately with {@link AiUnavailableException} for {@code open-seconds}, so an
+ * outage does not tie up request threads and database connections in doomed calls. Then a single trial call is
+ * let through: its success closes the circuit, its failure opens it again.
+ *
+ * Each admitted call gets an {@link Attempt} recording the open period it was admitted in and whether it is the
+ * half-open trial. Outcomes of calls admitted before the circuit last opened are ignored, so a slow call that
+ * started while the circuit was closed can neither close it again nor let a second trial through.
+ *
+ * Only failures that indicate the provider is unhealthy (5xx, I/O errors, timeouts) count; client errors and
+ * rate limiting do not.
+ */
+@Component
+@Slf4j
+public class AiCircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final MeterRegistry meterRegistry;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private long period;
+
+    public AiCircuitBreaker(MeterRegistry meterRegistry,
+            @Value("${app.ai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.ai.circuit-breaker.open-seconds:30}") long openSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = Duration.ofSeconds(openSeconds);
+
+        Gauge.builder("planai.ai.circuit-breaker.state", this, breaker -> breaker.state().ordinal())
+                .description("AI provider circuit state: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that a call may be made.
+     *
+     * @return The admitted attempt, whose outcome must be reported exactly once through {@link Attempt}.
+     * @throws AiUnavailableException if the circuit is open, or half-open with its trial call in flight.
+     */
+    public Attempt acquire() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long remaining = openedAt + openDuration.toNanos() - System.nanoTime();
+                if (remaining > 0) {
+                    throw reject(Duration.ofNanos(remaining));
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (trialInFlight) {
+                    throw reject(Duration.ofSeconds(1));
+                }
+                trialInFlight = true;
+                return new Attempt(period, true);
+            }
+            return new Attempt(period, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordSuccess(Attempt attempt) {
+        consecutiveFailures = 0;
+        if (attempt.trial) {
+            trialInFlight = false;
+            transition(State.CLOSED);
+        }
+    }
+
+    private void recordFailure(Attempt attempt) {
+        if (attempt.trial) {
+            trialInFlight = false;
+            open();
+            return;
+        }
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void recordIgnored(Attempt attempt) {
+        if (attempt.trial) {
+            trialInFlight = false;
+        }
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        // Calls admitted before this point belong to the previous period; their outcomes no longer count.
+        period++;
+        transition(State.OPEN);
+    }
+
+    State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void transition(State next) {
+        log.warn("AI provider circuit {} -> {} after {} consecutive failures", state, next, consecutiveFailures);
+        state = next;
+        meterRegistry.counter("planai.ai.circuit-breaker.transitions", "state", next.name()).increment();
+    }
+
+    private AiUnavailableException reject(Duration retryAfter) {
+        meterRegistry.counter("planai.ai.circuit-breaker.rejected").increment();
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return new AiUnavailableException("The AI provider is currently unavailable; try again in "
+                + retryAfterSeconds + " seconds.", retryAfterSeconds);
+    }
+
+    /**
+     * A call admitted by {@link #acquire()}. Only the first reported outcome counts.
+     */
+    public final class Attempt {
+
+        private final long period;
+        private final boolean trial;
+        private boolean reported;
+
+        private Attempt(long period, boolean trial) {
+            this.period = period;
+            this.trial = trial;
+        }
+
+        /**
+         * Records a successful call; closes the circuit when this was the half-open trial.
+         */
+        public void onSuccess() {
+            report(AiCircuitBreaker.this::recordSuccess);
+        }
+
+        /**
+         * Records a call that failed because the provider is unhealthy.
+         */
+        public void onFailure() {
+            report(AiCircuitBreaker.this::recordFailure);
+        }
+
+        /**
+         * Records a call whose outcome says nothing about the provider's health, e.g. a rejected request.
+         */
+        public void onIgnored() {
+            report(AiCircuitBreaker.this::recordIgnored);
+        }
+
+        private void report(Consumer<Attempt> outcome) {
+            lock.lock();
+            try {
+                if (reported) {
+                    return;
+                }
+                reported = true;
+                if (period == AiCircuitBreaker.this.period) {
+                    outcome.accept(this);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
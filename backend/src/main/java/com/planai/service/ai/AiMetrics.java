@@ -0,0 +1,185 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.planai.exception.AiBudgetExceededException;
+import com.planai.exception.AiRateLimitException;
+import com.planai.exception.AiUnavailableException;
+import com.planai.model.enums.AiEndpointEnum;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Latency and prompt size metrics of the AI features, the basis for their latency SLOs.
+ *
+ * <ul>
+ * <li>{@code planai.ai.phase}: duration of each phase of a chat turn or plan extraction, tagged by operation,
+ * phase and outcome.</li>
+ * <li>{@code planai.ai.call}: latency of a complete model call including retries, tagged by endpoint and
+ * outcome.</li>
+ * <li>{@code planai.ai.time-to-first-token}: time until a streamed call emits its first chunk.</li>
+ * <li>{@code planai.ai.prompt.chars} and {@code planai.ai.prompt.tokens}: size of each prompt sent.</li>
+ * </ul>
+ *
+ * All meters carry the configured model and publish percentile histograms, so percentiles can be aggregated
+ * across instances.
+ */
+@Component
+public class AiMetrics {
+
+    public static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+    private final TokenEstimator tokenEstimator;
+    private final String model;
+
+    public AiMetrics(MeterRegistry meterRegistry, TokenEstimator tokenEstimator,
+            @Value("${spring.ai.openai.chat.options.model}") String model) {
+        this.meterRegistry = meterRegistry;
+        this.tokenEstimator = tokenEstimator;
+        this.model = model;
+    }
+
+    /**
+     * Runs a phase of a chat turn or plan extraction and records its duration and outcome.
+     *
+     * @param operation The operation, e.g. {@code chat} or {@code extraction-full}.
+     * @param phase     The phase within the operation.
+     * @param work      The phase.
+     * @return The result of the phase.
+     */
+    public <T> T timePhase(String operation, String phase, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            T result = work.get();
+            recordPhase(operation, phase, SUCCESS, Duration.ofNanos(System.nanoTime() - start));
+            return result;
+        } catch (RuntimeException exception) {
+            recordPhase(operation, phase, outcome(exception), Duration.ofNanos(System.nanoTime() - start));
+            throw exception;
+        }
+    }
+
+    /**
+     * Times a streamed phase from subscription until it completes or fails.
+     *
+     * @param operation The operation, e.g. {@code chat-stream}.
+     * @param phase     The phase within the operation.
+     * @param work      The phase.
+     * @return The phase, recording its duration and outcome when it terminates.
+     */
+    public <T> Flux<T> timeStreamPhase(String operation, String phase, Flux<T> work) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return work
+                    .doOnComplete(() -> recordPhase(operation, phase, SUCCESS,
+                            Duration.ofNanos(System.nanoTime() - start)))
+                    .doOnError(exception -> recordPhase(operation, phase, outcome(exception),
+                            Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    /**
+     * Records the duration of a phase of a chat turn or plan extraction.
+     *
+     * @param operation The operation, e.g. {@code chat} or {@code extraction-full}.
+     * @param phase     The phase within the operation.
+     * @param outcome   {@link #SUCCESS} or the result of {@link #outcome(Throwable)}.
+     * @param duration  How long the phase took.
+     */
+    public void recordPhase(String operation, String phase, String outcome, Duration duration) {
+        timer("planai.ai.phase", "Duration of a phase of an AI operation", "operation", operation,
+                "phase", phase, "outcome", outcome).record(duration);
+    }
+
+    /**
+     * Records the latency of a complete model call.
+     *
+     * @param endpoint The feature the call was made for.
+     * @param outcome  {@link #SUCCESS} or the result of {@link #outcome(Throwable)}.
+     * @param start    {@link System#nanoTime()} before the call.
+     */
+    public void recordCall(AiEndpointEnum endpoint, String outcome, long start) {
+        timer("planai.ai.call", "Latency of a model call including retries", "endpoint", endpoint.name(),
+                "outcome", outcome).record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Records the time until a streamed call emitted its first chunk, or failed before it.
+     *
+     * @param endpoint The feature the call was made for.
+     * @param outcome  {@link #SUCCESS} or the result of {@link #outcome(Throwable)}.
+     * @param start    {@link System#nanoTime()} before the call.
+     */
+    public void recordFirstToken(AiEndpointEnum endpoint, String outcome, long start) {
+        timer("planai.ai.time-to-first-token", "Time until a streamed model call emits its first chunk",
+                "endpoint", endpoint.name(), "outcome", outcome).record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Records the size of a prompt about to be sent.
+     *
+     * @param endpoint       The feature the prompt is sent for.
+     * @param promptMessages The prompt messages.
+     */
+    public void recordPrompt(AiEndpointEnum endpoint, List<Message> promptMessages) {
+        long chars = 0;
+        long tokens = 0;
+        for (Message message : promptMessages) {
+            chars += message.getContent() == null ? 0 : message.getContent().length();
+            tokens += tokenEstimator.estimateMessage(message.getContent());
+        }
+        summary("planai.ai.prompt.chars", "Characters per prompt", "chars", endpoint).record(chars);
+        summary("planai.ai.prompt.tokens", "Estimated tokens per prompt", "tokens", endpoint).record(tokens);
+    }
+
+    /**
+     * Classifies a failure for the outcome tag.
+     *
+     * @param exception The failure, or null for success.
+     * @return The outcome tag value.
+     */
+    public static String outcome(Throwable exception) {
+        if (exception == null) {
+            return SUCCESS;
+        }
+        if (exception instanceof AiRateLimitException) {
+            return "rate-limited";
+        }
+        if (exception instanceof AiUnavailableException) {
+            return "unavailable";
+        }
+        if (exception instanceof AiBudgetExceededException) {
+            return "budget-exceeded";
+        }
+        return "error";
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary summary(String name, String description, String unit, AiEndpointEnum endpoint) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(unit)
+                .tag("endpoint", endpoint.name())
+                .tag("model", model)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
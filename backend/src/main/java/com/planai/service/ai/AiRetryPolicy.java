@@ -0,0 +1,116 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+/**
+ * Retry and deadline settings for AI provider calls, read from {@code app.ai.max-retries},
+ * {@code app.ai.timeout-seconds} and {@code app.ai.stream-timeout-seconds}.
+ *
+ * Retries use exponential backoff with full jitter, so clients that failed together do not retry together.
+ * Only transient failures are retried; rate limiting is left to the {@link AiCallLimiter}.
+ */
+@Component
+public class AiRetryPolicy {
+
+    private final int maxRetries;
+    private final Duration timeout;
+    private final Duration streamTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public AiRetryPolicy(@Value("${app.ai.max-retries:3}") int maxRetries,
+            @Value("${app.ai.timeout-seconds:60}") long timeoutSeconds,
+            @Value("${app.ai.stream-timeout-seconds:300}") long streamTimeoutSeconds,
+            @Value("${app.ai.retry.initial-backoff-ms:500}") long initialBackoffMs,
+            @Value("${app.ai.retry.max-backoff-ms:8000}") long maxBackoffMs) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.streamTimeout = Duration.ofSeconds(streamTimeoutSeconds);
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(Math.max(initialBackoffMs, maxBackoffMs));
+    }
+
+    /**
+     * @return The number of retries after the first attempt.
+     */
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return The deadline of a single attempt; for streams, the longest wait for the next chunk.
+     */
+    public Duration timeout() {
+        return timeout;
+    }
+
+    /**
+     * @return The deadline of a whole streamed attempt, however steadily it emits chunks.
+     */
+    public Duration streamTimeout() {
+        return streamTimeout;
+    }
+
+    /**
+     * Computes the delay before a retry: a random duration up to the exponentially growing, capped backoff.
+     *
+     * @param retry The retry about to be made, starting at 1.
+     * @return The delay to wait.
+     */
+    public Duration backoff(int retry) {
+        long ceiling = initialBackoff.toMillis() << Math.min(retry - 1, 20);
+        long capped = Math.min(maxBackoff.toMillis(), ceiling);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capped + 1));
+    }
+
+    /**
+     * Builds the equivalent reactive retry spec, for streaming calls.
+     *
+     * @return A jittered exponential backoff retrying transient failures only.
+     */
+    public RetryBackoffSpec reactiveRetry() {
+        return Retry.backoff(maxRetries, initialBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(1.0)
+                .filter(AiRetryPolicy::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Decides whether a failure is worth retrying and counts against the provider's health: server errors,
+     * I/O errors and timeouts are; client errors, rate limiting and our own rejections are not.
+     *
+     * @param exception The failure.
+     * @return True if the failure is transient.
+     */
+    public static boolean isTransient(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderRateLimitedException
+                    || cause instanceof WebClientResponseException.TooManyRequests) {
+                return false;
+            }
+            if (cause instanceof WebClientResponseException responseException) {
+                return responseException.getStatusCode().is5xxServerError();
+            }
+            if (cause instanceof TransientAiException || cause instanceof ResourceAccessException
+                    || cause instanceof WebClientRequestException || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,101 @@
+package com.planai.service.ai;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Factory and owner of the bounded executors used for background AI work.
+ *
+ * The executors are deliberately not exposed as {@code Executor} beans, which would replace Spring Boot's
+ * auto-configured application task executor. They are shut down with the application context.
+ *
+ * When {@code spring.threads.virtual.enabled} is set, tasks run on virtual threads. The thread count of each
+ * executor then acts purely as a concurrency limit, and queue bounds still apply.
+ */
+@Component
+public class AiTaskExecutors implements DisposableBean {
+
+    private final List<ExecutorService> executors = new CopyOnWriteArrayList<>();
+    private final boolean virtualThreads;
+    private final Scheduler blockingScheduler;
+
+    public AiTaskExecutors(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        this.blockingScheduler = virtualThreads
+                ? Schedulers.fromExecutorService(register(
+                        Executors.newThreadPerTaskExecutor(threadFactory("ai-blocking"))),
+                        "ai-blocking")
+                : Schedulers.boundedElastic();
+    }
+
+    /**
+     * Creates a fixed-size executor with a bounded queue. Submissions beyond the queue capacity are rejected with
+     * a {@link java.util.concurrent.RejectedExecutionException} instead of piling up.
+     *
+     * @param name          The thread name prefix.
+     * @param threads       The number of worker threads.
+     * @param queueCapacity The maximum number of queued tasks.
+     * @return The executor.
+     */
+    public ExecutorService bounded(String name, int threads, int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(name), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return register(executor);
+    }
+
+    /**
+     * Returns the Reactor scheduler for blocking work (database access, blocking AI calls) inside reactive
+     * pipelines: Reactor's bounded elastic scheduler, or a virtual thread per task in virtual-thread mode.
+     *
+     * @return The scheduler.
+     */
+    public Scheduler blockingScheduler() {
+        return blockingScheduler;
+    }
+
+    /**
+     * Returns whether tasks run on virtual threads.
+     *
+     * @return true in virtual-thread mode.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void destroy() {
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    private ExecutorService register(ExecutorService executor) {
+        executors.add(executor);
+        return executor;
+    }
+
+    private ThreadFactory threadFactory(String name) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name + "-", 1).factory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,365 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.planai.exception.AiBudgetExceededException;
+import com.planai.exception.AiGenerationException;
+import com.planai.exception.AiRateLimitException;
+import com.planai.exception.AiUnavailableException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Single entry point for outbound calls to the chat model, shared by chat, summarization and plan extraction.
+ *
+ * Every call that reaches the provider is admitted by the {@link AiCallLimiter} first; 429 responses pause the
+ * limiter and surface to clients as {@link AiRateLimitException}. Transient failures are retried per the
+ * {@link AiRetryPolicy} and feed the {@link AiCircuitBreaker}, which fails calls fast while the provider is down.
+ * Calls for a project are checked against its {@link TokenBudget}, and the provider's token usage of every attempt
+ * is accounted to it, estimated when the provider reports none.
+ */
+@Component
+@Slf4j
+public class AssistantClient {
+
+    private final ChatClient chatClient;
+    private final ResponseCache responseCache;
+    private final AiCallLimiter callLimiter;
+    private final AiCircuitBreaker circuitBreaker;
+    private final AiRetryPolicy retryPolicy;
+    private final AiTaskExecutors taskExecutors;
+    private final AiMetrics aiMetrics;
+    private final TokenBudget tokenBudget;
+    private final TokenEstimator tokenEstimator;
+    private final MeterRegistry meterRegistry;
+
+    public AssistantClient(ChatClient chatClient, ResponseCache responseCache, AiCallLimiter callLimiter,
+            AiCircuitBreaker circuitBreaker, AiRetryPolicy retryPolicy, AiTaskExecutors taskExecutors,
+            AiMetrics aiMetrics, TokenBudget tokenBudget, TokenEstimator tokenEstimator,
+            MeterRegistry meterRegistry) {
+        this.chatClient = chatClient;
+        this.responseCache = responseCache;
+        this.callLimiter = callLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.retryPolicy = retryPolicy;
+        this.taskExecutors = taskExecutors;
+        this.aiMetrics = aiMetrics;
+        this.tokenBudget = tokenBudget;
+        this.tokenEstimator = tokenEstimator;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sends the prompt and waits for the complete response, answering from the response cache when caching is
+     * enabled for the endpoint and an identical prompt was answered before.
+     *
+     * @param context        Who the call is made for.
+     * @param promptMessages The prompt messages, system prompt first.
+     * @return The non-blank response content.
+     * @throws AiGenerationException if the call fails or the response is empty.
+     * @throws AiRateLimitException  if the call could not be admitted or the provider is rate limiting.
+     * @throws AiUnavailableException if the provider is considered down.
+     * @throws AiBudgetExceededException if the project has used up its daily token budget.
+     */
+    public String call(AiCallContext context, List<Message> promptMessages) {
+        if (!responseCache.isEnabled(context.endpoint())) {
+            return callProvider(tokenBudget.admit(context), promptMessages);
+        }
+        String key = responseCache.keyOf(promptMessages);
+        return responseCache.get(context.endpoint(), key).orElseGet(() -> {
+            AiCallContext admitted = tokenBudget.admit(context);
+            String response = callProvider(admitted, promptMessages);
+            // Answers of a degraded model are not cached as answers of the configured one.
+            if (admitted.model() == null) {
+                responseCache.put(context.endpoint(), key, response);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Sends independent single-message prompts with bounded concurrency, each as by {@link #call}.
+     *
+     * @param context     Who the calls are made for.
+     * @param prompts     The prompts, each sent as one system message.
+     * @param parallelism The maximum number of calls in flight.
+     * @return The responses in prompt order.
+     * @throws AiGenerationException if any call fails; the remaining calls are cancelled.
+     */
+    public List<String> callAll(AiCallContext context, List<String> prompts, int parallelism) {
+        if (prompts.size() == 1) {
+            return List.of(call(context, List.of(new SystemMessage(prompts.get(0)))));
+        }
+        return Flux.fromIterable(prompts)
+                .flatMapSequential(prompt -> Mono
+                        .fromCallable(() -> call(context, List.of(new SystemMessage(prompt))))
+                        .subscribeOn(taskExecutors.blockingScheduler()), Math.max(1, parallelism))
+                .collectList()
+                .block();
+    }
+
+    /**
+     * Sends the prompt and streams the response content as it is generated. The limiter permit is held until the
+     * stream terminates. Transient failures are retried only until the first chunk has been emitted.
+     *
+     * @param context        Who the call is made for.
+     * @param promptMessages The prompt messages, system prompt first.
+     * @return The response content chunks; empty chunks are dropped.
+     */
+    public Flux<String> stream(AiCallContext context, List<Message> promptMessages) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AiCallContext admitted = tokenBudget.admit(context);
+            aiMetrics.recordPrompt(context.endpoint(), promptMessages);
+            // Retrying is only safe while nothing has been handed to the caller yet.
+            AtomicBoolean emitted = new AtomicBoolean();
+            return Flux.using(
+                            () -> callLimiter.acquire(context),
+                            permit -> streamProvider(admitted, promptMessages),
+                            AiCallLimiter.Permit::close)
+                    .doOnNext(token -> {
+                        if (emitted.compareAndSet(false, true)) {
+                            aiMetrics.recordFirstToken(context.endpoint(), AiMetrics.SUCCESS, start);
+                        }
+                    })
+                    .retryWhen(retryPolicy.reactiveRetry()
+                            .filter(exception -> !emitted.get() && AiRetryPolicy.isTransient(exception))
+                            .doBeforeRetry(signal -> countRetry(context))
+                            .scheduler(taskExecutors.blockingScheduler()))
+                    .onErrorMap(WebClientResponseException.TooManyRequests.class, exception -> rateLimited(
+                            RateLimitAwareResponseErrorHandler.parseRetryAfter(
+                                    exception.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))))
+                    .doOnComplete(() -> aiMetrics.recordCall(context.endpoint(), AiMetrics.SUCCESS, start))
+                    .doOnError(exception -> {
+                        String outcome = AiMetrics.outcome(exception);
+                        if (!emitted.get()) {
+                            aiMetrics.recordFirstToken(context.endpoint(), outcome, start);
+                        }
+                        aiMetrics.recordCall(context.endpoint(), outcome, start);
+                    });
+        })
+                // Admission may block, so it must not run on a non-blocking thread.
+                .subscribeOn(taskExecutors.blockingScheduler());
+    }
+
+    private Flux<String> streamProvider(AiCallContext context, List<Message> promptMessages) {
+        return Flux.defer(() -> {
+            AiCircuitBreaker.Attempt attempt = circuitBreaker.acquire();
+            long deadline = System.nanoTime() + retryPolicy.streamTimeout().toNanos();
+            StringBuilder content = new StringBuilder();
+            AtomicReference<TokenUsage> reportedUsage = new AtomicReference<>();
+            AtomicBoolean accounted = new AtomicBoolean();
+            // Accounted before the terminal signal propagates, so callers see the usage when the stream ends.
+            // Attempts that fail before generating anything are not billed and not accounted.
+            Runnable account = () -> {
+                boolean generated = reportedUsage.get() != null || !content.isEmpty();
+                if (generated && accounted.compareAndSet(false, true)) {
+                    TokenUsage usage = reportedUsage.get() != null
+                            ? reportedUsage.get()
+                            : estimateUsage(promptMessages, content.toString());
+                    recordUsageAsync(context, usage);
+                }
+            };
+            return chatClient.prompt(prompt(context, promptMessages))
+                    .stream()
+                    .chatResponse()
+                    .doOnNext(chunk -> {
+                        TokenUsage usage = reportedUsage(chunk);
+                        if (usage != null) {
+                            reportedUsage.set(usage);
+                        }
+                    })
+                    .map(AssistantClient::contentOf)
+                    .filter(token -> !token.isEmpty())
+                    .doOnNext(content::append)
+                    // Each chunk must arrive within the idle timeout and before the attempt's deadline. Cancelling
+                    // on timeout closes the underlying HTTP exchange.
+                    .timeout(Mono.delay(nextChunkTimeout(deadline)), chunk -> Mono.delay(nextChunkTimeout(deadline)))
+                    .doOnComplete(attempt::onSuccess)
+                    .doOnError(exception -> recordFailure(attempt, exception))
+                    .doOnCancel(attempt::onIgnored)
+                    .doOnComplete(account)
+                    .doOnError(exception -> account.run())
+                    .doOnCancel(account);
+        });
+    }
+
+    private String callProvider(AiCallContext context, List<Message> promptMessages) {
+        long start = System.nanoTime();
+        aiMetrics.recordPrompt(context.endpoint(), promptMessages);
+        try {
+            String response = callProviderWithRetries(context, promptMessages);
+            aiMetrics.recordCall(context.endpoint(), AiMetrics.SUCCESS, start);
+            return response;
+        } catch (RuntimeException exception) {
+            aiMetrics.recordCall(context.endpoint(), AiMetrics.outcome(exception), start);
+            throw exception;
+        }
+    }
+
+    private String callProviderWithRetries(AiCallContext context, List<Message> promptMessages) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return callProviderOnce(context, promptMessages);
+            } catch (Exception exception) {
+                if (exception instanceof AiGenerationException || exception instanceof AiRateLimitException
+                        || exception instanceof AiUnavailableException) {
+                    throw exception;
+                }
+                ProviderRateLimitedException rateLimitedException = findRateLimit(exception);
+                if (rateLimitedException != null) {
+                    throw rateLimited(rateLimitedException.getRetryAfter());
+                }
+                if (attempt > retryPolicy.maxRetries() || !AiRetryPolicy.isTransient(exception)) {
+                    throw new AiGenerationException("Failed to generate AI response.", exception);
+                }
+                Duration backoff = retryPolicy.backoff(attempt);
+                log.warn("AI call for {} failed (attempt {}), retrying in {} ms: {}", context.endpoint(), attempt,
+                        backoff.toMillis(), exception.getMessage());
+                countRetry(context);
+                sleep(backoff, exception);
+            }
+        }
+    }
+
+    private String callProviderOnce(AiCallContext context, List<Message> promptMessages) {
+        // The permit is released before any backoff, so waiting retries do not hold a slot.
+        try (AiCallLimiter.Permit permit = callLimiter.acquire(context)) {
+            AiCircuitBreaker.Attempt attempt = circuitBreaker.acquire();
+            ChatResponse chatResponse;
+            try {
+                // The attempt deadline is enforced by the HTTP client, which aborts the request when it expires.
+                chatResponse = chatClient.prompt(prompt(context, promptMessages)).call().chatResponse();
+            } catch (RuntimeException exception) {
+                recordFailure(attempt, exception);
+                throw exception;
+            }
+            attempt.onSuccess();
+            String response = contentOf(chatResponse);
+            TokenUsage usage = reportedUsage(chatResponse);
+            recordUsage(context, usage != null ? usage : estimateUsage(promptMessages, response));
+            if (response.isBlank()) {
+                throw new AiGenerationException("AI response was empty.");
+            }
+            return response;
+        }
+    }
+
+    private Duration nextChunkTimeout(long deadline) {
+        Duration remaining = Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+        return remaining.compareTo(retryPolicy.timeout()) < 0 ? remaining : retryPolicy.timeout();
+    }
+
+    private Prompt prompt(AiCallContext context, List<Message> promptMessages) {
+        if (context.model() == null) {
+            return new Prompt(promptMessages);
+        }
+        return new Prompt(promptMessages, OpenAiChatOptions.builder().withModel(context.model()).build());
+    }
+
+    private static String contentOf(ChatResponse chatResponse) {
+        if (chatResponse == null || chatResponse.getResult() == null
+                || chatResponse.getResult().getOutput().getContent() == null) {
+            return "";
+        }
+        return chatResponse.getResult().getOutput().getContent();
+    }
+
+    /**
+     * Returns the usage reported by the provider, or null if the response carries none.
+     */
+    private static TokenUsage reportedUsage(ChatResponse chatResponse) {
+        Usage usage = chatResponse == null || chatResponse.getMetadata() == null
+                ? null
+                : chatResponse.getMetadata().getUsage();
+        if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() == 0) {
+            return null;
+        }
+        return new TokenUsage(valueOf(usage.getPromptTokens()), valueOf(usage.getGenerationTokens()));
+    }
+
+    private static long valueOf(Long tokens) {
+        return tokens == null ? 0 : tokens;
+    }
+
+    private TokenUsage estimateUsage(List<Message> promptMessages, String response) {
+        long promptTokens = 0;
+        for (Message message : promptMessages) {
+            promptTokens += tokenEstimator.estimateMessage(message.getContent());
+        }
+        return new TokenUsage(promptTokens, tokenEstimator.estimate(response));
+    }
+
+    private void recordUsage(AiCallContext context, TokenUsage usage) {
+        if (context.usage() != null) {
+            context.usage().add(usage);
+        }
+        tokenBudget.record(context, usage);
+    }
+
+    /**
+     * Like {@link #recordUsage}, but writes the project usage on a blocking thread, since streams terminate on
+     * event loop threads.
+     */
+    private void recordUsageAsync(AiCallContext context, TokenUsage usage) {
+        if (context.usage() != null) {
+            context.usage().add(usage);
+        }
+        taskExecutors.blockingScheduler().schedule(() -> tokenBudget.record(context, usage));
+    }
+
+    private void recordFailure(AiCircuitBreaker.Attempt attempt, Throwable exception) {
+        if (AiRetryPolicy.isTransient(exception)) {
+            attempt.onFailure();
+        } else {
+            attempt.onIgnored();
+        }
+    }
+
+    private void countRetry(AiCallContext context) {
+        meterRegistry.counter("planai.ai.retries", "endpoint", context.endpoint().name()).increment();
+    }
+
+    private void sleep(Duration backoff, Exception cause) {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AiGenerationException("Interrupted while retrying the AI call.", cause);
+        }
+    }
+
+    private ProviderRateLimitedException findRateLimit(Throwable exception) {
+        // Spring AI may wrap the error handler's exception, e.g. in retry or observation layers.
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderRateLimitedException rateLimitedException) {
+                return rateLimitedException;
+            }
+        }
+        return null;
+    }
+
+    private AiRateLimitException rateLimited(Duration retryAfter) {
+        callLimiter.onProviderRateLimited(retryAfter);
+        long retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return new AiRateLimitException("The AI provider is rate limiting requests; try again in "
+                + retryAfterSeconds + " seconds.", retryAfterSeconds);
+    }
+}
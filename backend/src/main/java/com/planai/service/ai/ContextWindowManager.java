@@ -0,0 +1,100 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import com.planai.model.entity.MessageEntity;
+import com.planai.repository.MessageRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Selects the conversation history that fits in a model's prompt token budget.
+ *
+ * Messages are taken newest-first until the next one would overflow the budget left after the fixed parts of the
+ * prompt (system prompt, project context, the new user message) and the tokens reserved for the response.
+ */
+@Component
+@Slf4j
+public class ContextWindowManager {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final MessageRepository messageRepository;
+    private final TokenEstimator tokenEstimator;
+    private final int defaultTokenBudget;
+    private final int responseReserveTokens;
+    private final Map<String, Integer> modelTokenBudgets;
+
+    public ContextWindowManager(MessageRepository messageRepository, TokenEstimator tokenEstimator,
+            @Value("${app.ai.context.token-budget:8000}") int defaultTokenBudget,
+            @Value("${app.ai.context.response-reserve-tokens:1024}") int responseReserveTokens,
+            @Value("#{${app.ai.context.model-token-budgets:{:}}}") Map<String, Integer> modelTokenBudgets) {
+        this.messageRepository = messageRepository;
+        this.tokenEstimator = tokenEstimator;
+        this.defaultTokenBudget = defaultTokenBudget;
+        this.responseReserveTokens = responseReserveTokens;
+        this.modelTokenBudgets = modelTokenBudgets;
+    }
+
+    /**
+     * Returns the total prompt token budget configured for a model.
+     *
+     * @param model The model name.
+     * @return The token budget for the whole prompt, including the response reserve.
+     */
+    public int budgetFor(String model) {
+        return modelTokenBudgets.getOrDefault(model, defaultTokenBudget);
+    }
+
+    /**
+     * Selects the most recent messages of a conversation that fit in the remaining budget.
+     *
+     * @param conversationId The ID of the conversation.
+     * @param afterMessageId Only messages with a greater ID are considered, e.g. those not yet summarized.
+     * @param model          The model the prompt is for.
+     * @param reservedTokens Tokens already taken by the fixed parts of the prompt.
+     * @return The selected messages in chronological order.
+     */
+    public List<MessageEntity> selectHistory(Long conversationId, Long afterMessageId, String model,
+            int reservedTokens) {
+        int remaining = budgetFor(model) - responseReserveTokens - reservedTokens;
+        if (remaining <= 0) {
+            log.warn("Prompt for conversation {} exceeds the {} token budget of {} before history is added",
+                    conversationId, budgetFor(model), model);
+            return List.of();
+        }
+
+        List<MessageEntity> selected = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        while (true) {
+            Slice<MessageEntity> page = messageRepository
+                    .findByConversationIdAndIdGreaterThanOrderByCreatedAtDescIdDesc(conversationId, afterMessageId,
+                            pageable);
+            for (MessageEntity message : page) {
+                int tokens = tokenEstimator.estimateMessage(message.getContent());
+                if (tokens > remaining) {
+                    Collections.reverse(selected);
+                    return selected;
+                }
+                remaining -= tokens;
+                selected.add(message);
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            pageable = page.nextPageable();
+        }
+
+        Collections.reverse(selected);
+        return selected;
+    }
+}
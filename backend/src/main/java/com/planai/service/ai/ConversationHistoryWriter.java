@@ -0,0 +1,158 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.planai.model.entity.ConversationEntity;
+import com.planai.repository.MessageRepository;
+
+/**
+ * Renders the conversation history of a project incrementally from a stream of message rows.
+ *
+ * Rows must arrive grouped by conversation in the same order as the conversations passed in. Each conversation is
+ * written as a header, its rolling summary (if any) and its remaining raw messages; conversations with neither are
+ * omitted. Summaries can be left out when only raw messages are wanted, as in incremental extraction.
+ *
+ * Given a token limit, the history is split into chunks at message boundaries, each within the limit unless a
+ * single message exceeds it. A conversation cut by a chunk boundary is reopened as "continued" in the next chunk.
+ */
+public class ConversationHistoryWriter {
+
+    private final Iterator<ConversationEntity> conversations;
+    private final boolean includeSummaries;
+    private final TokenEstimator tokenEstimator;
+    private final int maxChunkTokens;
+    private final List<String> chunks = new ArrayList<>();
+    private final StringBuilder builder = new StringBuilder();
+    private int chunkTokens;
+    private ConversationEntity current;
+
+    public ConversationHistoryWriter(List<ConversationEntity> conversations) {
+        this(conversations, true);
+    }
+
+    public ConversationHistoryWriter(List<ConversationEntity> conversations, boolean includeSummaries) {
+        this(conversations, includeSummaries, null, Integer.MAX_VALUE);
+    }
+
+    public ConversationHistoryWriter(List<ConversationEntity> conversations, TokenEstimator tokenEstimator,
+            int maxChunkTokens) {
+        this(conversations, true, tokenEstimator, maxChunkTokens);
+    }
+
+    private ConversationHistoryWriter(List<ConversationEntity> conversations, boolean includeSummaries,
+            TokenEstimator tokenEstimator, int maxChunkTokens) {
+        this.conversations = conversations.iterator();
+        this.includeSummaries = includeSummaries;
+        this.tokenEstimator = tokenEstimator;
+        this.maxChunkTokens = maxChunkTokens;
+    }
+
+    /**
+     * Appends one message row, opening its conversation first if needed.
+     *
+     * @param row The message row.
+     */
+    public void append(MessageRepository.HistoryView row) {
+        if (current == null || !current.getId().equals(row.getConversationId())) {
+            advanceTo(row.getConversationId());
+        }
+        String line = row.getRole() + ": " + row.getContent() + "\n";
+        if (needsNewChunk(line)) {
+            ConversationEntity conversation = current;
+            startNextChunk();
+            current = conversation;
+            write("Conversation " + conversation.getId() + " (continued):\n");
+        }
+        write(line);
+    }
+
+    /**
+     * Writes the summaries of any conversations not reached by the rows and returns the rendered history.
+     *
+     * @return The rendered history, trimmed; chunks are joined when a token limit was given.
+     */
+    public String finish() {
+        return String.join("\n\n", finishChunks());
+    }
+
+    /**
+     * Writes the summaries of any conversations not reached by the rows and returns the history in chunks.
+     *
+     * @return The non-empty chunks in order, each trimmed.
+     */
+    public List<String> finishChunks() {
+        closeCurrent();
+        while (conversations.hasNext()) {
+            writeSummaryOnly(conversations.next());
+        }
+        startNextChunk();
+        return chunks;
+    }
+
+    private void advanceTo(Long conversationId) {
+        closeCurrent();
+        while (conversations.hasNext()) {
+            ConversationEntity next = conversations.next();
+            if (next.getId().equals(conversationId)) {
+                open(next);
+                return;
+            }
+            writeSummaryOnly(next);
+        }
+        throw new IllegalStateException("Message rows are not ordered like the conversations of the project.");
+    }
+
+    private void open(ConversationEntity conversation) {
+        String header = "Conversation " + conversation.getId() + ":\n";
+        if (hasSummary(conversation)) {
+            header += "Summary of earlier messages:\n" + conversation.getSummary() + "\n";
+        }
+        if (needsNewChunk(header)) {
+            startNextChunk();
+        }
+        current = conversation;
+        write(header);
+    }
+
+    private void closeCurrent() {
+        if (current != null) {
+            write("\n");
+            current = null;
+        }
+    }
+
+    private boolean needsNewChunk(String text) {
+        return tokenEstimator != null && chunkTokens > 0
+                && chunkTokens + tokenEstimator.estimate(text) > maxChunkTokens;
+    }
+
+    private void write(String text) {
+        builder.append(text);
+        if (tokenEstimator != null) {
+            chunkTokens += tokenEstimator.estimate(text);
+        }
+    }
+
+    private void startNextChunk() {
+        current = null;
+        String chunk = builder.toString().trim();
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        builder.setLength(0);
+        chunkTokens = 0;
+    }
+
+    private void writeSummaryOnly(ConversationEntity conversation) {
+        if (hasSummary(conversation)) {
+            open(conversation);
+            closeCurrent();
+        }
+    }
+
+    private boolean hasSummary(ConversationEntity conversation) {
+        return includeSummaries && conversation.getSummary() != null && !conversation.getSummary().isBlank();
+    }
+}
@@ -0,0 +1,145 @@
+package com.planai.service.ai;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.planai.model.entity.MessageEntity;
+import com.planai.model.enums.AiEndpointEnum;
+import com.planai.repository.ConversationRepository;
+import com.planai.repository.MessageRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains a compact rolling summary per conversation in the background.
+ *
+ * Each update folds only the messages after the conversation's checkpoint ({@code summarizedUpToMessageId}) into
+ * the previous summary, leaving the most recent messages raw so chat prompts still see them verbatim. Updates run
+ * once enough new messages have accumulated, so the work per chat turn stays constant regardless of conversation
+ * length.
+ */
+@Component
+@Slf4j
+public class ConversationSummarizer {
+
+    private static final String SUMMARY_PROMPT = "summarize-conversation";
+    private static final int MAX_SUMMARY_LENGTH = 10000;
+
+    private final ConversationRepository conversationRepository;
+    private final MessageRepository messageRepository;
+    private final AssistantClient assistantClient;
+    private final PromptTemplateRegistry promptTemplates;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final Set<Long> pendingConversations = ConcurrentHashMap.newKeySet();
+    private final boolean enabled;
+    private final int keepRecentMessages;
+    private final int batchSize;
+
+    public ConversationSummarizer(ConversationRepository conversationRepository, MessageRepository messageRepository,
+            AssistantClient assistantClient, PromptTemplateRegistry promptTemplates,
+            TransactionTemplate transactionTemplate, AiTaskExecutors taskExecutors,
+            @Value("${app.ai.summary.enabled:true}") boolean enabled,
+            @Value("${app.ai.summary.keep-recent-messages:6}") int keepRecentMessages,
+            @Value("${app.ai.summary.batch-size:6}") int batchSize,
+            @Value("${app.ai.summary.executor-threads:2}") int executorThreads,
+            @Value("${app.ai.summary.queue-capacity:100}") int queueCapacity) {
+        this.conversationRepository = conversationRepository;
+        this.messageRepository = messageRepository;
+        this.assistantClient = assistantClient;
+        this.promptTemplates = promptTemplates;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = taskExecutors.bounded("summary", executorThreads, queueCapacity);
+        this.enabled = enabled;
+        this.keepRecentMessages = keepRecentMessages;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Schedules a summary update for the conversation. Requests for a conversation that already has an update
+     * pending are coalesced, and requests are dropped when the summary queue is full.
+     *
+     * @param conversationId The ID of the conversation.
+     */
+    public void requestUpdate(Long conversationId) {
+        if (!enabled || !pendingConversations.add(conversationId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    update(conversationId);
+                } catch (Exception exception) {
+                    log.warn("Failed to update summary for conversation {}", conversationId, exception);
+                } finally {
+                    pendingConversations.remove(conversationId);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            pendingConversations.remove(conversationId);
+            log.debug("Summary queue full; skipping update for conversation {}", conversationId);
+        }
+    }
+
+    private void update(Long conversationId) {
+        SummaryInput input = transactionTemplate.execute(status -> loadInput(conversationId));
+        if (input == null) {
+            return;
+        }
+
+        String prompt = promptTemplates.render(SUMMARY_PROMPT, Map.of(
+                "previous_summary", input.previousSummary() == null ? "(none)" : input.previousSummary(),
+                "new_messages", input.newMessages()));
+        String summary = assistantClient
+                .call(AiCallContext.of(AiEndpointEnum.SUMMARY, input.projectId()), List.of(new SystemMessage(prompt)))
+                .trim();
+        if (summary.length() > MAX_SUMMARY_LENGTH) {
+            summary = summary.substring(0, MAX_SUMMARY_LENGTH);
+        }
+
+        String updatedSummary = summary;
+        Integer updated = transactionTemplate.execute(status -> conversationRepository.updateSummary(
+                conversationId, updatedSummary, input.upToMessageId(), input.checkpoint()));
+        if (updated == null || updated == 0) {
+            log.debug("Summary checkpoint of conversation {} moved concurrently; discarding update", conversationId);
+        }
+    }
+
+    private SummaryInput loadInput(Long conversationId) {
+        ConversationRepository.SummaryView current = conversationRepository.findSummaryById(conversationId)
+                .orElse(null);
+        if (current == null) {
+            return null;
+        }
+
+        long checkpoint = current.getSummarizedUpToMessageId() == null ? 0L : current.getSummarizedUpToMessageId();
+        List<MessageEntity> unsummarized =
+                messageRepository.findByConversationIdAndIdGreaterThanOrderByCreatedAtAscIdAsc(conversationId,
+                        checkpoint);
+        int foldCount = unsummarized.size() - keepRecentMessages;
+        if (foldCount < batchSize) {
+            return null;
+        }
+
+        StringBuilder newMessages = new StringBuilder();
+        for (MessageEntity message : unsummarized.subList(0, foldCount)) {
+            newMessages.append(message.getRole()).append(": ").append(message.getContent()).append("\n");
+        }
+        Long upToMessageId = unsummarized.get(foldCount - 1).getId();
+        return new SummaryInput(current.getProjectId(), current.getSummary(), newMessages.toString().trim(), checkpoint,
+                upToMessageId);
+    }
+
+    private record SummaryInput(Long projectId, String previousSummary, String newMessages, Long checkpoint,
+            Long upToMessageId) {
+    }
+}
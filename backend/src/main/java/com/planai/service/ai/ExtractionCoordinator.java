@@ -0,0 +1,277 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.planai.exception.AiGenerationException;
+import com.planai.exception.ExtractionInProgressException;
+import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.repository.MessageRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces concurrent plan extractions of the same project into a single run.
+ *
+ * A caller arriving while an extraction of the project is in flight shares its result, provided no message was
+ * added since that extraction started. A caller that sees newer messages is queued for one follow-up run, which
+ * starts when the current one finishes; every later caller joins that same follow-up. Callers of the follow-up
+ * share the strongest requested mode (any full re-read over INCREMENTAL). Only the caller that runs an extraction
+ * receives its progress callbacks. Waiting callers give up after {@code app.ai.extraction.await-timeout-seconds}.
+ */
+@Component
+public class ExtractionCoordinator {
+
+    private final MessageRepository messageRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration awaitTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, ProjectFlights> flightsByProject = new HashMap<>();
+
+    public ExtractionCoordinator(MessageRepository messageRepository, MeterRegistry meterRegistry,
+            @Value("${app.ai.extraction.await-timeout-seconds:600}") long awaitTimeoutSeconds) {
+        this.messageRepository = messageRepository;
+        this.meterRegistry = meterRegistry;
+        this.awaitTimeout = Duration.ofSeconds(awaitTimeoutSeconds);
+    }
+
+    /**
+     * Runs the extraction, or joins an equivalent one already in flight for the project.
+     *
+     * @param projectId  The ID of the project.
+     * @param mode       The requested extraction mode.
+     * @param extraction Runs an extraction in the given mode.
+     * @return The result of the extraction this caller ran or joined.
+     * @throws AiGenerationException if the awaited extraction did not finish within the await timeout.
+     */
+    public ProjectDetailResponse extract(Long projectId, ExtractionModeEnum mode,
+            Function<ExtractionModeEnum, ProjectDetailResponse> extraction) {
+        Long latestMessageId = messageRepository.findMaxIdByProjectId(projectId);
+        Flight flight;
+        boolean runner;
+        String role;
+
+        lock.lock();
+        try {
+            ProjectFlights flights = flightsByProject.computeIfAbsent(projectId, id -> new ProjectFlights());
+            if (flights.current == null) {
+                flight = new Flight(latestMessageId, mode);
+                flight.turn.complete(null);
+                flights.current = flight;
+                runner = true;
+                role = "leader";
+            } else if (Objects.equals(flights.current.upToMessageId, latestMessageId)) {
+                flight = flights.current;
+                runner = false;
+                role = "joined";
+            } else if (flights.followUp == null) {
+                flight = new Flight(latestMessageId, mode);
+                flights.followUp = flight;
+                runner = true;
+                role = "follow-up";
+            } else {
+                flight = flights.followUp;
+                if (mode != ExtractionModeEnum.INCREMENTAL && flight.mode == ExtractionModeEnum.INCREMENTAL) {
+                    flight.mode = mode;
+                }
+                runner = false;
+                role = "joined-follow-up";
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        meterRegistry.counter("planai.extraction.requests", "role", role).increment();
+        if (!runner) {
+            return await(flight.result);
+        }
+        try {
+            // finish() of the current flight hands the project over to a queued follow-up and starts it here.
+            await(flight.turn);
+        } catch (RuntimeException exception) {
+            abandon(projectId, flight, exception);
+            throw exception;
+        }
+        return run(projectId, flight, extraction);
+    }
+
+    /**
+     * Takes the project's extraction slot for an extraction the caller runs itself, such as a streamed one, whose
+     * result callers arriving meanwhile share like a leader's. The slot must be released with
+     * {@link Slot#complete} or {@link Slot#fail}.
+     *
+     * @param projectId The ID of the project.
+     * @return The slot.
+     * @throws ExtractionInProgressException if an extraction of the project is already in flight.
+     */
+    public Slot acquire(Long projectId) {
+        Long latestMessageId = messageRepository.findMaxIdByProjectId(projectId);
+        Flight flight = new Flight(latestMessageId, ExtractionModeEnum.FULL);
+        flight.turn.complete(null);
+        lock.lock();
+        try {
+            ProjectFlights flights = flightsByProject.computeIfAbsent(projectId, id -> new ProjectFlights());
+            if (flights.current != null) {
+                throw new ExtractionInProgressException(
+                        "A plan extraction of this project is already in progress.");
+            }
+            flights.current = flight;
+        } finally {
+            lock.unlock();
+        }
+        meterRegistry.counter("planai.extraction.requests", "role", "slot").increment();
+        return new Slot(projectId, flight);
+    }
+
+    private ProjectDetailResponse run(Long projectId, Flight flight,
+            Function<ExtractionModeEnum, ProjectDetailResponse> extraction) {
+        ExtractionModeEnum mode;
+        lock.lock();
+        try {
+            // Read under the lock; followers may have upgraded the mode while this flight was queued.
+            mode = flight.mode;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            ProjectDetailResponse result = extraction.apply(mode);
+            finish(projectId, flight);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            finish(projectId, flight);
+            flight.result.completeExceptionally(exception);
+            throw exception;
+        }
+    }
+
+    /**
+     * Releases the project after its current flight, starting the queued follow-up in the same critical section so
+     * no other caller can become leader in between.
+     */
+    private void finish(Long projectId, Flight flight) {
+        lock.lock();
+        try {
+            ProjectFlights flights = flightsByProject.get(projectId);
+            if (flights == null || flights.current != flight) {
+                return;
+            }
+            flights.current = flights.followUp;
+            flights.followUp = null;
+            if (flights.current == null) {
+                flightsByProject.remove(projectId);
+            } else {
+                flights.current.turn.complete(null);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fails a flight whose runner gave up before running it, so its joined callers do not wait for it.
+     */
+    private void abandon(Long projectId, Flight flight, RuntimeException exception) {
+        lock.lock();
+        try {
+            ProjectFlights flights = flightsByProject.get(projectId);
+            if (flights != null && flights.followUp == flight) {
+                flights.followUp = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // The turn may have been handed over just before the runner gave up.
+        finish(projectId, flight);
+        flight.result.completeExceptionally(exception);
+    }
+
+    private <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AiGenerationException("Interrupted while waiting for plan extraction.", exception);
+        } catch (TimeoutException exception) {
+            throw new AiGenerationException("Timed out waiting for plan extraction.", exception);
+        } catch (ExecutionException | CompletionException | CancellationException exception) {
+            Throwable cause = exception.getCause() == null ? exception : exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AiGenerationException("Failed to extract plan.", cause);
+        }
+    }
+
+    /**
+     * An extraction slot taken with {@link #acquire(Long)}. Only the first release takes effect.
+     */
+    public final class Slot {
+
+        private final Long projectId;
+        private final Flight flight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Slot(Long projectId, Flight flight) {
+            this.projectId = projectId;
+            this.flight = flight;
+        }
+
+        /**
+         * Releases the slot, handing the result to the callers that joined it.
+         *
+         * @param result The result of the extraction.
+         */
+        public void complete(ProjectDetailResponse result) {
+            if (released.compareAndSet(false, true)) {
+                finish(projectId, flight);
+                flight.result.complete(result);
+            }
+        }
+
+        /**
+         * Releases the slot, failing the callers that joined it.
+         *
+         * @param exception Why the extraction failed.
+         */
+        public void fail(Throwable exception) {
+            if (released.compareAndSet(false, true)) {
+                finish(projectId, flight);
+                flight.result.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class ProjectFlights {
+        private Flight current;
+        private Flight followUp;
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<ProjectDetailResponse> result = new CompletableFuture<>();
+        /** Completed once the flight may run: immediately for a leader, on hand-over for a follow-up. */
+        private final CompletableFuture<Void> turn = new CompletableFuture<>();
+        private final Long upToMessageId;
+        private ExtractionModeEnum mode;
+
+        private Flight(Long upToMessageId, ExtractionModeEnum mode) {
+            this.upToMessageId = upToMessageId;
+            this.mode = mode;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+
+import com.planai.model.enums.ExtractionPhaseEnum;
+
+/**
+ * Receives the duration of each phase of a plan extraction as it completes.
+ */
+@FunctionalInterface
+public interface ExtractionProgressListener {
+
+    /**
+     * Listener that ignores all progress.
+     */
+    ExtractionProgressListener NONE = (phase, duration) -> {
+    };
+
+    /**
+     * Called when a phase of the extraction has completed.
+     *
+     * @param phase    The completed phase.
+     * @param duration How long the phase took.
+     */
+    void phaseCompleted(ExtractionPhaseEnum phase, Duration duration);
+}
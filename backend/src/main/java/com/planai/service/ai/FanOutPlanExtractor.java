@@ -0,0 +1,100 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Generates a plan in two phases to parallelize output generation, which dominates extraction latency.
+ *
+ * Phase one generates only the epic outline. Phase two decomposes every epic into user stories and tasks with
+ * one smaller call per epic, up to {@code parallelism} at a time, and the results are assembled into the usual
+ * plan JSON. End-to-end time is then roughly the outline plus the slowest epic instead of the whole tree.
+ *
+ * Every epic prompt starts with the same conversation history and outline and only ends with its epic, so the
+ * shared prefix is identical across the parallel calls.
+ */
+@Component
+@Slf4j
+public class FanOutPlanExtractor {
+
+    private static final String EPICS_PROMPT = "structure-plan-epics";
+    private static final String EPIC_DETAIL_PROMPT = "structure-plan-epic-detail";
+
+    private final AssistantClient assistantClient;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary epicCounts;
+    private final int parallelism;
+
+    public FanOutPlanExtractor(AssistantClient assistantClient, PromptTemplateRegistry promptTemplates,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.ai.extraction.fan-out.parallelism:4}") int parallelism) {
+        this.assistantClient = assistantClient;
+        this.promptTemplates = promptTemplates;
+        this.objectMapper = objectMapper;
+        this.parallelism = Math.max(1, parallelism);
+        this.epicCounts = DistributionSummary.builder("planai.extraction.fan-out.epics")
+                .description("Epics decomposed in parallel per fan-out plan extraction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Generates the epic outline, then the stories and tasks of each epic in parallel.
+     *
+     * @param context             The extraction call, for admission and usage accounting.
+     * @param conversationContext The rendered project context and conversation history.
+     * @return The assembled plan as JSON text in the structure-plan format.
+     * @throws AiGenerationException if any call fails or returns invalid JSON.
+     */
+    public String extract(AiCallContext context, String conversationContext) {
+        String outlineResponse = assistantClient.call(context, List.of(new SystemMessage(
+                promptTemplates.render(EPICS_PROMPT, Map.of("conversation_history", conversationContext)))));
+        List<ObjectNode> outline = new ArrayList<>();
+        PlanJson.read(objectMapper, outlineResponse).path("epics").forEach(epic -> {
+            if (epic.isObject()) {
+                outline.add((ObjectNode) epic);
+            }
+        });
+        ObjectNode plan = objectMapper.createObjectNode();
+        ArrayNode epics = plan.putArray("epics");
+        if (outline.isEmpty()) {
+            return PlanJson.compact(objectMapper, plan);
+        }
+        epicCounts.record(outline.size());
+
+        String outlineJson = PlanJson.compact(objectMapper, objectMapper.createArrayNode().addAll(outline));
+        List<String> epicPrompts = new ArrayList<>(outline.size());
+        for (int i = 0; i < outline.size(); i++) {
+            epicPrompts.add(promptTemplates.render(EPIC_DETAIL_PROMPT, Map.of(
+                    "conversation_history", conversationContext,
+                    "epic_outline", outlineJson,
+                    "epic_number", String.valueOf(i + 1),
+                    "epic", PlanJson.compact(objectMapper, outline.get(i)))));
+        }
+        List<String> epicResponses = assistantClient.callAll(context, epicPrompts, parallelism);
+
+        for (int i = 0; i < outline.size(); i++) {
+            JsonNode stories = PlanJson.read(objectMapper, epicResponses.get(i)).path("userStories");
+            ObjectNode epic = outline.get(i);
+            epic.set("userStories", stories.isArray() ? stories : objectMapper.createArrayNode());
+            epics.add(epic);
+        }
+        log.debug("Decomposed {} epics in parallel for project {}", outline.size(), context.projectId());
+        return PlanJson.compact(objectMapper, plan);
+    }
+}
@@ -0,0 +1,166 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Extracts a plan from a conversation history too large for one prompt.
+ *
+ * Map: each history chunk is turned into a partial plan, with up to {@code parallelism} calls in flight.
+ * Reduce: partial plans are merged into one, consolidating duplicates, in batches that fit the single-pass token
+ * limit, round after round until one plan remains. Wall-clock time therefore grows with the number of chunks
+ * divided by the parallelism rather than with the history length.
+ *
+ * Chunk boundaries only depend on the history before them, so after new messages arrive the map calls of the
+ * unchanged leading chunks can be answered by the response cache.
+ */
+@Component
+@Slf4j
+public class MapReducePlanExtractor {
+
+    private static final String CHUNK_PROMPT = "structure-plan-chunk";
+    private static final String MERGE_PROMPT = "merge-partial-plans";
+    private static final String EMPTY_PLAN = "{\"epics\":[]}";
+
+    private final AssistantClient assistantClient;
+    private final PromptTemplateRegistry promptTemplates;
+    private final TokenEstimator tokenEstimator;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary chunkCounts;
+    private final boolean enabled;
+    private final int singlePassMaxTokens;
+    private final int chunkTokens;
+    private final int parallelism;
+
+    public MapReducePlanExtractor(AssistantClient assistantClient, PromptTemplateRegistry promptTemplates,
+            TokenEstimator tokenEstimator, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.ai.extraction.map-reduce.enabled:true}") boolean enabled,
+            @Value("${app.ai.extraction.map-reduce.single-pass-max-tokens:6000}") int singlePassMaxTokens,
+            @Value("${app.ai.extraction.map-reduce.chunk-tokens:3000}") int chunkTokens,
+            @Value("${app.ai.extraction.map-reduce.parallelism:2}") int parallelism) {
+        this.assistantClient = assistantClient;
+        this.promptTemplates = promptTemplates;
+        this.tokenEstimator = tokenEstimator;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.singlePassMaxTokens = singlePassMaxTokens;
+        this.chunkTokens = Math.min(chunkTokens, singlePassMaxTokens);
+        this.parallelism = Math.max(1, parallelism);
+        this.chunkCounts = DistributionSummary.builder("planai.extraction.map-reduce.chunks")
+                .description("History chunks per map-reduce plan extraction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a full extraction is too large for a single prompt.
+     *
+     * @param projectContext      The rendered project context.
+     * @param conversationHistory The rendered conversation history.
+     * @return True if the history should be extracted chunk by chunk.
+     */
+    public boolean shouldSplit(String projectContext, String conversationHistory) {
+        return enabled
+                && tokenEstimator.estimate(projectContext) + tokenEstimator.estimate(conversationHistory)
+                        > singlePassMaxTokens;
+    }
+
+    /**
+     * @return The token limit of one history chunk.
+     */
+    public int chunkTokens() {
+        return chunkTokens;
+    }
+
+    /**
+     * Extracts partial plans from the chunks in parallel and merges them into the final plan.
+     *
+     * @param context        The extraction call, for admission and usage accounting.
+     * @param projectContext The rendered project context, sent with every chunk.
+     * @param historyChunks  The conversation history in token-bounded chunks, in order.
+     * @return The merged plan as JSON text in the structure-plan format.
+     * @throws AiGenerationException if any call fails or returns invalid JSON.
+     */
+    public String extract(AiCallContext context, String projectContext, List<String> historyChunks) {
+        chunkCounts.record(historyChunks.size());
+
+        List<String> chunkPrompts = new ArrayList<>(historyChunks.size());
+        for (int i = 0; i < historyChunks.size(); i++) {
+            chunkPrompts.add(promptTemplates.render(CHUNK_PROMPT, Map.of(
+                    "project_context", projectContext,
+                    "chunk_number", String.valueOf(i + 1),
+                    "chunk_count", String.valueOf(historyChunks.size()),
+                    "conversation_excerpt", historyChunks.get(i))));
+        }
+        List<String> partialPlans = assistantClient.callAll(context, chunkPrompts, parallelism).stream()
+                .map(this::compactPlan)
+                .filter(plan -> !plan.equals(EMPTY_PLAN))
+                .toList();
+        log.debug("Extracted {} partial plans from {} chunks for project {}", partialPlans.size(),
+                historyChunks.size(), context.projectId());
+
+        int round = 0;
+        while (partialPlans.size() > 1) {
+            List<List<String>> batches = batch(partialPlans);
+            List<String> mergePrompts = batches.stream()
+                    .map(batch -> promptTemplates.render(MERGE_PROMPT, Map.of(
+                            "partial_plans", String.join("\n\n", batch))))
+                    .toList();
+            partialPlans = assistantClient.callAll(context, mergePrompts, parallelism).stream()
+                    .map(this::compactPlan)
+                    .toList();
+            log.debug("Merge round {} for project {} left {} plans", ++round, context.projectId(), partialPlans.size());
+        }
+        return partialPlans.isEmpty() ? EMPTY_PLAN : partialPlans.get(0);
+    }
+
+    /**
+     * Groups consecutive plans into merge batches that fit the single-pass limit, with at least two plans per
+     * batch so every round makes progress.
+     */
+    private List<List<String>> batch(List<String> plans) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (String plan : plans) {
+            int planTokens = tokenEstimator.estimate(plan);
+            if (current.size() >= 2 && currentTokens + planTokens > singlePassMaxTokens) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(plan);
+            currentTokens += planTokens;
+        }
+        if (current.size() == 1 && !batches.isEmpty()) {
+            batches.get(batches.size() - 1).add(current.get(0));
+        } else if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * Extracts the JSON plan from a response and re-serializes it without whitespace, which keeps merge prompts
+     * small.
+     */
+    private String compactPlan(String response) {
+        JsonNode plan = PlanJson.read(objectMapper, response);
+        JsonNode epics = plan.path("epics");
+        if (!epics.isArray() || epics.isEmpty()) {
+            return EMPTY_PLAN;
+        }
+        return PlanJson.compact(objectMapper, plan);
+    }
+}
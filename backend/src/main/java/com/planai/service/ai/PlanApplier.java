@@ -0,0 +1,429 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.planai.exception.AiGenerationException;
+import com.planai.model.entity.EpicEntity;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.model.entity.TaskEntity;
+import com.planai.model.entity.UserStoryEntity;
+import com.planai.model.enums.PriorityEnum;
+import com.planai.model.enums.StatusEnum;
+import com.planai.repository.EpicRepository;
+
+/**
+ * Applies plans extracted by the AI to a project's epic, story and task hierarchy.
+ *
+ * A full plan is merged into the project's hierarchy. A change set (from incremental extraction) references existing
+ * items by ID and only creates, updates or removes what it mentions.
+ */
+@Component
+public class PlanApplier {
+
+    private final ObjectMapper objectMapper;
+
+    public PlanApplier(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Merges a full extracted plan into the project. Extracted epics, stories and tasks are matched to existing
+     * ones under the same parent by title similarity and position; matched items are updated in place and keep
+     * their IDs, statuses and estimates, unmatched extracted items are inserted and unmatched existing items are
+     * deleted. Hibernate only issues updates for rows whose values actually changed, so re-extracting a stable
+     * plan writes little or nothing.
+     *
+     * @param project  The project with its plan hierarchy loaded.
+     * @param rootNode The extracted plan, with an "epics" array.
+     */
+    public void merge(ProjectEntity project, JsonNode rootNode) {
+        List<JsonNode> epicNodes = toList(epicsOf(rootNode));
+        List<EpicEntity> epics = sorted(project.getEpics(), EpicEntity::getOrderIndex);
+        List<EpicEntity> matches = TitleMatcher.match(epics, EpicEntity::getTitle,
+                titlesOf(epicNodes, "Untitled Epic"));
+        removeUnmatched(epics, matches, project::removeEpic);
+
+        for (int index = 0; index < epicNodes.size(); index++) {
+            mergeEpic(project, matches.get(index), epicNodes.get(index), index);
+        }
+    }
+
+    /**
+     * Matches a single extracted epic, as produced while a plan is still being streamed, by title against the
+     * project's epics not yet claimed by earlier epics of the same extraction.
+     *
+     * @param epics          The IDs and titles of the project's epics, in order.
+     * @param epicNode       The extracted epic.
+     * @param claimedEpicIds IDs of the epics already merged during this extraction.
+     * @return The ID of the matched epic, or null when the extracted epic is new.
+     */
+    public Long matchEpic(List<EpicRepository.TitleView> epics, JsonNode epicNode, Set<Long> claimedEpicIds) {
+        List<EpicRepository.TitleView> candidates = epics.stream()
+                .filter(epic -> !claimedEpicIds.contains(epic.getId()))
+                .toList();
+        EpicRepository.TitleView match = TitleMatcher.match(candidates, EpicRepository.TitleView::getTitle,
+                titlesOf(List.of(epicNode), "Untitled Epic")).get(0);
+        return match == null ? null : match.getId();
+    }
+
+    /**
+     * Merges a single streamed epic into its matched epic, or into a new epic when nothing matched. A new epic is
+     * returned without a project; the caller attaches and persists it.
+     *
+     * @param epic     The matched epic with its stories loaded, or null.
+     * @param epicNode The extracted epic with its stories and tasks.
+     * @param index    The position of the epic in the extracted plan.
+     * @return The updated or new epic.
+     */
+    public EpicEntity mergeEpic(EpicEntity epic, JsonNode epicNode, int index) {
+        if (epic == null) {
+            epic = newEpic(epicNode, index);
+        } else {
+            epic.setTitle(defaultString(epicNode.path("title").asText(null), "Untitled Epic"));
+            epic.setDescription(epicNode.path("description").asText(null));
+            epic.setPriority(resolvePriority(epicNode.path("priority").asText(null)));
+            epic.setOrderIndex(index);
+        }
+        mergeStories(epic, toList(epicNode.path("userStories")));
+        return epic;
+    }
+
+    /**
+     * Deletes the epics that were not part of a streamed extraction.
+     *
+     * @param project     The project with its epics loaded.
+     * @param keptEpicIds IDs of the epics merged during the extraction.
+     */
+    public void removeEpicsExcept(ProjectEntity project, Set<Long> keptEpicIds) {
+        List.copyOf(project.getEpics()).stream()
+                .filter(epic -> !keptEpicIds.contains(epic.getId()))
+                .forEach(project::removeEpic);
+    }
+
+    /**
+     * Applies an incremental change set. Items with the "id" of an existing item are updated with the fields they
+     * provide (or removed when "removed" is true); items without an ID are created; unmentioned items are kept.
+     *
+     * @param project     The project with its plan hierarchy loaded.
+     * @param changesNode The change set, with an "epics" array.
+     */
+    public void applyChanges(ProjectEntity project, JsonNode changesNode) {
+        JsonNode epicsNode = epicsOf(changesNode);
+        Map<Long, EpicEntity> epicsById = byId(project.getEpics(), EpicEntity::getId);
+
+        for (JsonNode epicNode : epicsNode) {
+            EpicEntity epic = epicsById.get(idOf(epicNode));
+            if (isRemoved(epicNode)) {
+                if (epic != null) {
+                    project.removeEpic(epic);
+                }
+                continue;
+            }
+            if (epic == null) {
+                epic = newEpic(epicNode, nextOrderIndex(project.getEpics(), EpicEntity::getOrderIndex));
+                project.addEpic(epic);
+            } else {
+                updateText(epicNode, "title", epic::setTitle);
+                updateText(epicNode, "description", epic::setDescription);
+                if (hasText(epicNode, "priority")) {
+                    epic.setPriority(resolvePriority(epicNode.path("priority").asText()));
+                }
+            }
+            applyStoryChanges(epic, epicNode.path("userStories"));
+        }
+    }
+
+    /**
+     * Serializes the project's current plan, including item IDs and statuses, as compact JSON for prompts that
+     * ask the AI for changes against it.
+     *
+     * @param project The project with its plan hierarchy loaded.
+     * @return The plan as JSON.
+     */
+    public String snapshot(ProjectEntity project) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode epicsNode = root.putArray("epics");
+        for (EpicEntity epic : sorted(project.getEpics(), EpicEntity::getOrderIndex)) {
+            ObjectNode epicNode = epicsNode.addObject();
+            epicNode.put("id", epic.getId());
+            epicNode.put("title", epic.getTitle());
+            putIfPresent(epicNode, "description", epic.getDescription());
+            epicNode.put("priority", epic.getPriority().name());
+            epicNode.put("status", epic.getStatus().name());
+
+            ArrayNode storiesNode = epicNode.putArray("userStories");
+            for (UserStoryEntity story : sorted(epic.getStories(), UserStoryEntity::getOrderIndex)) {
+                ObjectNode storyNode = storiesNode.addObject();
+                storyNode.put("id", story.getId());
+                storyNode.put("title", story.getTitle());
+                putIfPresent(storyNode, "asA", story.getAsA());
+                putIfPresent(storyNode, "iWant", story.getIWant());
+                putIfPresent(storyNode, "soThat", story.getSoThat());
+                storyNode.put("priority", story.getPriority().name());
+                storyNode.put("status", story.getStatus().name());
+
+                ArrayNode tasksNode = storyNode.putArray("tasks");
+                for (TaskEntity task : sorted(story.getTasks(), TaskEntity::getOrderIndex)) {
+                    ObjectNode taskNode = tasksNode.addObject();
+                    taskNode.put("id", task.getId());
+                    taskNode.put("title", task.getTitle());
+                    putIfPresent(taskNode, "description", task.getDescription());
+                    if (task.getEstimatedHours() != null) {
+                        taskNode.put("estimatedHours", task.getEstimatedHours());
+                    }
+                    taskNode.put("status", task.getStatus().name());
+                }
+            }
+        }
+        return root.toString();
+    }
+
+    private void mergeEpic(ProjectEntity project, EpicEntity epic, JsonNode epicNode, int index) {
+        EpicEntity merged = mergeEpic(epic, epicNode, index);
+        if (epic == null) {
+            project.addEpic(merged);
+        }
+    }
+
+    private void mergeStories(EpicEntity epic, List<JsonNode> storyNodes) {
+        List<UserStoryEntity> stories = sorted(epic.getStories(), UserStoryEntity::getOrderIndex);
+        List<UserStoryEntity> matches = TitleMatcher.match(stories, UserStoryEntity::getTitle,
+                titlesOf(storyNodes, "Untitled Story"));
+        removeUnmatched(stories, matches, epic::removeStory);
+
+        for (int index = 0; index < storyNodes.size(); index++) {
+            JsonNode storyNode = storyNodes.get(index);
+            UserStoryEntity story = matches.get(index);
+            if (story == null) {
+                story = newStory(storyNode, index);
+                epic.addStory(story);
+            } else {
+                story.setTitle(defaultString(storyNode.path("title").asText(null), "Untitled Story"));
+                story.setAsA(storyNode.path("asA").asText(null));
+                story.setIWant(storyNode.path("iWant").asText(null));
+                story.setSoThat(storyNode.path("soThat").asText(null));
+                story.setPriority(resolvePriority(storyNode.path("priority").asText(null)));
+                story.setOrderIndex(index);
+            }
+            mergeTasks(story, toList(storyNode.path("tasks")));
+        }
+    }
+
+    private void mergeTasks(UserStoryEntity story, List<JsonNode> taskNodes) {
+        List<TaskEntity> tasks = sorted(story.getTasks(), TaskEntity::getOrderIndex);
+        List<TaskEntity> matches = TitleMatcher.match(tasks, TaskEntity::getTitle,
+                titlesOf(taskNodes, "Untitled Task"));
+        removeUnmatched(tasks, matches, story::removeTask);
+
+        for (int index = 0; index < taskNodes.size(); index++) {
+            JsonNode taskNode = taskNodes.get(index);
+            TaskEntity task = matches.get(index);
+            if (task == null) {
+                story.addTask(newTask(taskNode, index));
+            } else {
+                // Estimates may have been adjusted by hand, so only fill in missing ones.
+                task.setTitle(defaultString(taskNode.path("title").asText(null), "Untitled Task"));
+                task.setDescription(taskNode.path("description").asText(null));
+                if (task.getEstimatedHours() == null) {
+                    task.setEstimatedHours(resolveEstimatedHours(taskNode.path("estimatedHours").asInt()));
+                }
+                task.setOrderIndex(index);
+            }
+        }
+    }
+
+    private void applyStoryChanges(EpicEntity epic, JsonNode storiesNode) {
+        Map<Long, UserStoryEntity> storiesById = byId(epic.getStories(), UserStoryEntity::getId);
+        for (JsonNode storyNode : storiesNode) {
+            UserStoryEntity story = storiesById.get(idOf(storyNode));
+            if (isRemoved(storyNode)) {
+                if (story != null) {
+                    epic.removeStory(story);
+                }
+                continue;
+            }
+            if (story == null) {
+                story = newStory(storyNode, nextOrderIndex(epic.getStories(), UserStoryEntity::getOrderIndex));
+                epic.addStory(story);
+            } else {
+                updateText(storyNode, "title", story::setTitle);
+                updateText(storyNode, "asA", story::setAsA);
+                updateText(storyNode, "iWant", story::setIWant);
+                updateText(storyNode, "soThat", story::setSoThat);
+                if (hasText(storyNode, "priority")) {
+                    story.setPriority(resolvePriority(storyNode.path("priority").asText()));
+                }
+            }
+            applyTaskChanges(story, storyNode.path("tasks"));
+        }
+    }
+
+    private void applyTaskChanges(UserStoryEntity story, JsonNode tasksNode) {
+        Map<Long, TaskEntity> tasksById = byId(story.getTasks(), TaskEntity::getId);
+        for (JsonNode taskNode : tasksNode) {
+            TaskEntity task = tasksById.get(idOf(taskNode));
+            if (isRemoved(taskNode)) {
+                if (task != null) {
+                    story.removeTask(task);
+                }
+                continue;
+            }
+            if (task == null) {
+                story.addTask(newTask(taskNode, nextOrderIndex(story.getTasks(), TaskEntity::getOrderIndex)));
+            } else {
+                updateText(taskNode, "title", task::setTitle);
+                updateText(taskNode, "description", task::setDescription);
+                if (taskNode.path("estimatedHours").asInt() > 0) {
+                    task.setEstimatedHours(taskNode.path("estimatedHours").asInt());
+                }
+            }
+        }
+    }
+
+    private EpicEntity newEpic(JsonNode epicNode, int orderIndex) {
+        EpicEntity epic = new EpicEntity();
+        epic.setTitle(defaultString(epicNode.path("title").asText(null), "Untitled Epic"));
+        epic.setDescription(epicNode.path("description").asText(null));
+        epic.setPriority(resolvePriority(epicNode.path("priority").asText(null)));
+        epic.setStatus(StatusEnum.TODO);
+        epic.setOrderIndex(orderIndex);
+        return epic;
+    }
+
+    private UserStoryEntity newStory(JsonNode storyNode, int orderIndex) {
+        UserStoryEntity story = new UserStoryEntity();
+        story.setTitle(defaultString(storyNode.path("title").asText(null), "Untitled Story"));
+        story.setAsA(storyNode.path("asA").asText(null));
+        story.setIWant(storyNode.path("iWant").asText(null));
+        story.setSoThat(storyNode.path("soThat").asText(null));
+        story.setPriority(resolvePriority(storyNode.path("priority").asText(null)));
+        story.setStatus(StatusEnum.TODO);
+        story.setOrderIndex(orderIndex);
+        return story;
+    }
+
+    private TaskEntity newTask(JsonNode taskNode, int orderIndex) {
+        TaskEntity task = new TaskEntity();
+        task.setTitle(defaultString(taskNode.path("title").asText(null), "Untitled Task"));
+        task.setDescription(taskNode.path("description").asText(null));
+        task.setEstimatedHours(resolveEstimatedHours(taskNode.path("estimatedHours").asInt()));
+        task.setStatus(StatusEnum.TODO);
+        task.setOrderIndex(orderIndex);
+        return task;
+    }
+
+    private JsonNode epicsOf(JsonNode rootNode) {
+        JsonNode epicsNode = rootNode.path("epics");
+        if (!epicsNode.isArray()) {
+            throw new AiGenerationException("AI response did not include epics array.");
+        }
+        return epicsNode;
+    }
+
+    private List<JsonNode> toList(JsonNode arrayNode) {
+        List<JsonNode> nodes = new ArrayList<>();
+        arrayNode.forEach(nodes::add);
+        return nodes;
+    }
+
+    private List<String> titlesOf(List<JsonNode> nodes, String fallback) {
+        return nodes.stream()
+                .map(node -> defaultString(node.path("title").asText(null), fallback))
+                .toList();
+    }
+
+    private <T> void removeUnmatched(List<T> existing, List<T> matches, Consumer<T> remover) {
+        Set<T> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        matched.addAll(matches.stream().filter(Objects::nonNull).toList());
+        existing.stream()
+                .filter(item -> !matched.contains(item))
+                .forEach(remover);
+    }
+
+    private Long idOf(JsonNode node) {
+        JsonNode idNode = node.path("id");
+        return idNode.canConvertToLong() ? idNode.asLong() : null;
+    }
+
+    private boolean isRemoved(JsonNode node) {
+        return node.path("removed").asBoolean(false);
+    }
+
+    private boolean hasText(JsonNode node, String field) {
+        return node.hasNonNull(field) && !node.path(field).asText().isBlank();
+    }
+
+    private void updateText(JsonNode node, String field, Consumer<String> setter) {
+        if (hasText(node, field)) {
+            setter.accept(node.path(field).asText());
+        }
+    }
+
+    private void putIfPresent(ObjectNode node, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            node.put(field, value);
+        }
+    }
+
+    private <T> Map<Long, T> byId(List<T> items, Function<T, Long> idGetter) {
+        return items.stream()
+                .filter(item -> idGetter.apply(item) != null)
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    private <T> List<T> sorted(List<T> items, Function<T, Integer> orderGetter) {
+        List<T> sortedItems = items == null ? new ArrayList<>() : new ArrayList<>(items);
+        sortedItems.sort(Comparator.comparing(orderGetter, Comparator.nullsLast(Integer::compareTo)));
+        return sortedItems;
+    }
+
+    private <T> int nextOrderIndex(List<T> items, Function<T, Integer> orderGetter) {
+        return items.stream()
+                .map(orderGetter)
+                .filter(index -> index != null)
+                .max(Integer::compareTo)
+                .map(index -> index + 1)
+                .orElse(0);
+    }
+
+    private PriorityEnum resolvePriority(String value) {
+        if (value == null || value.isBlank()) {
+            return PriorityEnum.MEDIUM;
+        }
+        try {
+            return PriorityEnum.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            return PriorityEnum.MEDIUM;
+        }
+    }
+
+    private Integer resolveEstimatedHours(int value) {
+        if (value <= 0) {
+            return 4;
+        }
+        return value;
+    }
+
+    private String defaultString(String value, String fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return value;
+    }
+}
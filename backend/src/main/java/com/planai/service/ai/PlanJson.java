@@ -0,0 +1,48 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.exception.AiGenerationException;
+
+/**
+ * Reads the JSON object out of a model response, ignoring any text the model put around it.
+ */
+final class PlanJson {
+
+    private PlanJson() {
+    }
+
+    /**
+     * @param objectMapper The mapper to parse with.
+     * @param response     The raw model response.
+     * @return The outermost JSON object of the response.
+     * @throws AiGenerationException if the response contains no valid JSON object.
+     */
+    static JsonNode read(ObjectMapper objectMapper, String response) {
+        int startIndex = response.indexOf('{');
+        int endIndex = response.lastIndexOf('}');
+        if (startIndex == -1 || endIndex < startIndex) {
+            throw new AiGenerationException("AI response did not contain valid JSON.");
+        }
+        try {
+            return objectMapper.readTree(response.substring(startIndex, endIndex + 1));
+        } catch (IOException exception) {
+            throw new AiGenerationException("Failed to parse AI response JSON.", exception);
+        }
+    }
+
+    /**
+     * @param objectMapper The mapper to serialize with.
+     * @param node         The JSON to serialize.
+     * @return The JSON without insignificant whitespace.
+     */
+    static String compact(ObjectMapper objectMapper, JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (IOException exception) {
+            throw new AiGenerationException("Failed to serialize plan JSON.", exception);
+        }
+    }
+}
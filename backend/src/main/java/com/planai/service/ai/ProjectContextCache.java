@@ -0,0 +1,108 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.repository.ProjectRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of rendered project contexts, keyed on the project's plan version.
+ *
+ * Every mutation of a project's plan must call {@link #invalidate(Long)}, which bumps the plan version persisted
+ * on the project, so every instance sees the change. Lookups for an unchanged version only read the version and
+ * are served from memory without loading the plan hierarchy. Entries are evicted by size and after a period
+ * without access.
+ */
+@Component
+public class ProjectContextCache {
+
+    private final ProjectContextRenderer renderer;
+    private final ProjectRepository projectRepository;
+    private final Cache<ContextKey, String> contexts;
+
+    public ProjectContextCache(ProjectContextRenderer renderer, ProjectRepository projectRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.ai.context-cache.maximum-size:500}") long maximumSize,
+            @Value("${app.ai.context-cache.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this.renderer = renderer;
+        this.projectRepository = projectRepository;
+        this.contexts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, contexts, "planai.project-context");
+    }
+
+    /**
+     * Returns the rendered context for the project's current plan version, rendering it on a miss.
+     *
+     * The loader is only invoked on a miss and must return the project with a loadable plan hierarchy, so callers
+     * should run this inside a transaction. It runs outside the cache's compute lock (a monitor inside
+     * ConcurrentHashMap) so a virtual thread is not pinned while the hierarchy is read; concurrent misses may
+     * render the same context twice.
+     *
+     * @param projectId     The ID of the project.
+     * @param projectLoader Loads the project with its hierarchy on a cache miss.
+     * @return The rendered project context.
+     */
+    public String get(Long projectId, Supplier<ProjectEntity> projectLoader) {
+        ContextKey key = new ContextKey(projectId, currentVersion(projectId));
+        String context = contexts.getIfPresent(key);
+        if (context == null) {
+            context = renderer.render(projectLoader.get());
+            contexts.put(key, context);
+        }
+        return context;
+    }
+
+    /**
+     * Marks the project's plan as changed by bumping its persisted plan version, in the surrounding transaction
+     * if there is one. This instance also drops the project's entries once that transaction completes, so a
+     * context rendered from uncommitted or rolled-back state is never reused.
+     *
+     * @param projectId The ID of the project whose plan changed.
+     */
+    public void invalidate(Long projectId) {
+        projectRepository.incrementPlanVersion(projectId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(projectId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(projectId);
+            }
+        });
+    }
+
+    /**
+     * Returns the current plan version of a project.
+     *
+     * @param projectId The ID of the project.
+     * @return The plan version, starting at zero.
+     */
+    public long currentVersion(Long projectId) {
+        Long version = projectRepository.findPlanVersionById(projectId);
+        return version == null ? 0L : version;
+    }
+
+    private void evict(Long projectId) {
+        contexts.asMap().keySet().removeIf(key -> key.projectId().equals(projectId));
+    }
+
+    private record ContextKey(Long projectId, long version) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.planai.model.entity.EpicEntity;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.model.entity.TaskEntity;
+import com.planai.model.entity.UserStoryEntity;
+import com.planai.model.enums.PriorityEnum;
+import com.planai.model.enums.ProjectContextFormatEnum;
+import com.planai.model.enums.StatusEnum;
+
+/**
+ * Renders the current project plan into the text context included in AI prompts, in the configured
+ * {@link ProjectContextFormatEnum format}.
+ */
+@Component
+public class ProjectContextRenderer {
+
+    static final String COMPACT_LEGEND = "Plan format: one line per item, indented by level: P project, "
+            + "E<n> epic, S<n> story, T<n> task. {..} holds non-default attributes: H/L priority (default MEDIUM), "
+            + "WIP/DONE status (default TODO), <n>h estimate. After \":\" follows the description; a story's is "
+            + "\"role | want | benefit\".\n";
+
+    private final ProjectContextFormatEnum format;
+
+    public ProjectContextRenderer(
+            @Value("${app.ai.context.format:MARKDOWN}") ProjectContextFormatEnum format) {
+        this.format = format;
+    }
+
+    /**
+     * Renders the project, its epics, stories and tasks in the configured format.
+     *
+     * Must be called while the project's lazy associations can still be initialized.
+     *
+     * @param project The project with its plan hierarchy.
+     * @return The rendered project context.
+     */
+    public String render(ProjectEntity project) {
+        return render(project, format);
+    }
+
+    /**
+     * Renders the project, its epics, stories and tasks in the given format.
+     *
+     * @param project The project with its plan hierarchy.
+     * @param format  The format to render.
+     * @return The rendered project context.
+     */
+    public String render(ProjectEntity project, ProjectContextFormatEnum format) {
+        return format == ProjectContextFormatEnum.COMPACT ? renderCompact(project) : renderMarkdown(project);
+    }
+
+    private String renderMarkdown(ProjectEntity project) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("## Project\n");
+        builder.append("- Name: ").append(project.getName()).append("\n");
+        if (project.getDescription() != null && !project.getDescription().isBlank()) {
+            builder.append("- Description: ").append(project.getDescription()).append("\n");
+        }
+
+        List<EpicEntity> epics = sortedEpics(project);
+
+        builder.append("\n## Epics\n");
+        if (epics.isEmpty()) {
+            builder.append("- No epics defined yet.\n");
+            return builder.toString();
+        }
+
+        for (EpicEntity epic : epics) {
+            builder.append("- Epic: ").append(epic.getTitle());
+            builder.append(" (Priority: ").append(epic.getPriority()).append(", Status: ")
+                    .append(epic.getStatus()).append(")\n");
+            if (epic.getDescription() != null && !epic.getDescription().isBlank()) {
+                builder.append("  - Description: ").append(epic.getDescription()).append("\n");
+            }
+
+            List<UserStoryEntity> stories = sortedStories(epic);
+            if (stories.isEmpty()) {
+                builder.append("  - No user stories defined yet.\n");
+                continue;
+            }
+
+            for (UserStoryEntity story : stories) {
+                builder.append("  - Story: ").append(story.getTitle());
+                builder.append(" (Priority: ").append(story.getPriority()).append(", Status: ")
+                        .append(story.getStatus()).append(")\n");
+                if (story.getAsA() != null && !story.getAsA().isBlank()) {
+                    builder.append("    - As a: ").append(story.getAsA()).append("\n");
+                }
+                if (story.getIWant() != null && !story.getIWant().isBlank()) {
+                    builder.append("    - I want: ").append(story.getIWant()).append("\n");
+                }
+                if (story.getSoThat() != null && !story.getSoThat().isBlank()) {
+                    builder.append("    - So that: ").append(story.getSoThat()).append("\n");
+                }
+
+                List<TaskEntity> tasks = sortedTasks(story);
+                if (tasks.isEmpty()) {
+                    builder.append("    - No tasks defined yet.\n");
+                    continue;
+                }
+
+                for (TaskEntity task : tasks) {
+                    builder.append("    - Task: ").append(task.getTitle());
+                    builder.append(" (Status: ").append(task.getStatus());
+                    if (task.getEstimatedHours() != null) {
+                        builder.append(", Est: ").append(task.getEstimatedHours()).append("h");
+                    }
+                    builder.append(")\n");
+                    if (task.getDescription() != null && !task.getDescription().isBlank()) {
+                        builder.append("      - Description: ").append(task.getDescription()).append("\n");
+                    }
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Renders one line per item. Empty levels are left out and attributes at their default value are omitted;
+     * the legend explains the abbreviations once.
+     */
+    private String renderCompact(ProjectEntity project) {
+        StringBuilder builder = new StringBuilder(COMPACT_LEGEND);
+        builder.append("P ").append(project.getName());
+        appendText(builder, project.getDescription());
+        builder.append("\n");
+
+        List<EpicEntity> epics = sortedEpics(project);
+        if (epics.isEmpty()) {
+            builder.append("(no epics yet)\n");
+            return builder.toString();
+        }
+        for (int e = 0; e < epics.size(); e++) {
+            EpicEntity epic = epics.get(e);
+            builder.append("E").append(e + 1).append(" ").append(epic.getTitle());
+            appendAttributes(builder, epic.getPriority(), epic.getStatus(), null);
+            appendText(builder, epic.getDescription());
+            builder.append("\n");
+
+            List<UserStoryEntity> stories = sortedStories(epic);
+            for (int s = 0; s < stories.size(); s++) {
+                UserStoryEntity story = stories.get(s);
+                builder.append(" S").append(s + 1).append(" ").append(story.getTitle());
+                appendAttributes(builder, story.getPriority(), story.getStatus(), null);
+                if (hasText(story.getAsA()) || hasText(story.getIWant()) || hasText(story.getSoThat())) {
+                    builder.append(": ").append(valueOrEmpty(story.getAsA()))
+                            .append(" | ").append(valueOrEmpty(story.getIWant()))
+                            .append(" | ").append(valueOrEmpty(story.getSoThat()));
+                }
+                builder.append("\n");
+
+                List<TaskEntity> tasks = sortedTasks(story);
+                for (int t = 0; t < tasks.size(); t++) {
+                    TaskEntity task = tasks.get(t);
+                    builder.append("  T").append(t + 1).append(" ").append(task.getTitle());
+                    appendAttributes(builder, null, task.getStatus(), task.getEstimatedHours());
+                    appendText(builder, task.getDescription());
+                    builder.append("\n");
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendAttributes(StringBuilder builder, PriorityEnum priority, StatusEnum status,
+            Integer estimatedHours) {
+        List<String> attributes = new ArrayList<>(3);
+        if (priority == PriorityEnum.HIGH) {
+            attributes.add("H");
+        } else if (priority == PriorityEnum.LOW) {
+            attributes.add("L");
+        }
+        if (status == StatusEnum.IN_PROGRESS) {
+            attributes.add("WIP");
+        } else if (status == StatusEnum.DONE) {
+            attributes.add("DONE");
+        }
+        if (estimatedHours != null) {
+            attributes.add(estimatedHours + "h");
+        }
+        if (!attributes.isEmpty()) {
+            builder.append(" {").append(String.join(",", attributes)).append("}");
+        }
+    }
+
+    private static void appendText(StringBuilder builder, String text) {
+        if (hasText(text)) {
+            // Keeps every item on a single line.
+            builder.append(": ").append(text.strip().replaceAll("\\s*\\R\\s*", " "));
+        }
+    }
+
+    private static boolean hasText(String text) {
+        return text != null && !text.isBlank();
+    }
+
+    private static String valueOrEmpty(String text) {
+        return hasText(text) ? text.strip() : "";
+    }
+
+    private static List<EpicEntity> sortedEpics(ProjectEntity project) {
+        List<EpicEntity> epics = project.getEpics() == null ? new ArrayList<>() : new ArrayList<>(project.getEpics());
+        epics.sort(Comparator.comparing(EpicEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
+        return epics;
+    }
+
+    private static List<UserStoryEntity> sortedStories(EpicEntity epic) {
+        List<UserStoryEntity> stories = epic.getStories() == null
+                ? new ArrayList<>()
+                : new ArrayList<>(epic.getStories());
+        stories.sort(Comparator.comparing(UserStoryEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
+        return stories;
+    }
+
+    private static List<TaskEntity> sortedTasks(UserStoryEntity story) {
+        List<TaskEntity> tasks = story.getTasks() == null
+                ? new ArrayList<>()
+                : new ArrayList<>(story.getTasks());
+        tasks.sort(Comparator.comparing(TaskEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
+        return tasks;
+    }
+}
@@ -0,0 +1,125 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Measures how much of each chat prompt is byte-identical to the previous prompt of the same conversation, the
+ * part a provider with prompt prefix caching can serve from its cache.
+ *
+ * <ul>
+ * <li>{@code planai.ai.prompt.prefix}: prompts by the last segment that was unchanged from the previous turn,
+ * tagged {@code stable-through}: {@code full} when the whole previous prompt is a prefix of the new one, a
+ * segment name, {@code none}, or {@code first} for the first prompt seen of a conversation.</li>
+ * <li>{@code planai.ai.prompt.prefix.chars}: characters of the reused prefix.</li>
+ * </ul>
+ *
+ * Only a 64-bit hash and the length of each message of a conversation's last prompt are kept.
+ */
+@Component
+public class PromptPrefixTracker {
+
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, PromptFingerprint> lastPrompts;
+    private final DistributionSummary reusedChars;
+
+    public PromptPrefixTracker(MeterRegistry meterRegistry,
+            @Value("${app.ai.prompt-prefix.maximum-size:10000}") long maximumSize,
+            @Value("${app.ai.prompt-prefix.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this.meterRegistry = meterRegistry;
+        this.lastPrompts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .build();
+        this.reusedChars = DistributionSummary.builder("planai.ai.prompt.prefix.chars")
+                .description("Characters of a chat prompt identical to the previous prompt of its conversation")
+                .baseUnit("chars")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compares a chat prompt with the previous prompt of its conversation and remembers it for the next turn.
+     *
+     * @param conversationId The ID of the conversation.
+     * @param segments       The prompt's segments in prompt order.
+     */
+    public void observe(Long conversationId, List<PromptSegment> segments) {
+        PromptFingerprint current = PromptFingerprint.of(segments);
+        PromptFingerprint previous = lastPrompts.getIfPresent(conversationId);
+        lastPrompts.put(conversationId, current);
+        if (previous == null) {
+            count("first");
+            return;
+        }
+
+        int reused = 0;
+        long chars = 0;
+        int common = Math.min(previous.hashes().length, current.hashes().length);
+        while (reused < common && previous.hashes()[reused] == current.hashes()[reused]) {
+            chars += current.lengths()[reused];
+            reused++;
+        }
+        reusedChars.record(chars);
+        count(reused == previous.hashes().length ? "full" : stableThrough(segments, reused));
+    }
+
+    /**
+     * Returns the last segment whose messages all lie within the reused prefix.
+     */
+    private static String stableThrough(List<PromptSegment> segments, int reusedMessages) {
+        String stable = "none";
+        int end = 0;
+        for (PromptSegment segment : segments) {
+            end += segment.messages().size();
+            if (end > reusedMessages) {
+                break;
+            }
+            stable = segment.type().name().toLowerCase();
+        }
+        return stable;
+    }
+
+    private void count(String stableThrough) {
+        meterRegistry.counter("planai.ai.prompt.prefix", "stable-through", stableThrough).increment();
+    }
+
+    private record PromptFingerprint(long[] hashes, int[] lengths) {
+
+        static PromptFingerprint of(List<PromptSegment> segments) {
+            List<Message> messages = PromptSegment.messagesOf(segments);
+            long[] hashes = new long[messages.size()];
+            int[] lengths = new int[messages.size()];
+            for (int i = 0; i < messages.size(); i++) {
+                String content = messages.get(i).getContent() == null ? "" : messages.get(i).getContent();
+                hashes[i] = hash(messages.get(i).getMessageType().getValue(), content);
+                lengths[i] = content.length();
+            }
+            return new PromptFingerprint(hashes, lengths);
+        }
+
+        /**
+         * 64-bit FNV-1a over the role and content; a collision at worst miscounts one prompt.
+         */
+        private static long hash(String role, String content) {
+            long hash = 0xcbf29ce484222325L;
+            for (String part : new String[] {role, "\u0000", content}) {
+                for (int i = 0; i < part.length(); i++) {
+                    hash ^= part.charAt(i);
+                    hash *= 0x100000001b3L;
+                }
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.planai.service.ai;
+
+import java.util.List;
+
+import org.springframework.ai.chat.messages.Message;
+
+import com.planai.model.enums.PromptSegmentEnum;
+
+/**
+ * The messages of one segment of a chat prompt. Segment boundaries are message boundaries, so a segment that did
+ * not change is byte-identical in the next prompt.
+ *
+ * @param type     The segment.
+ * @param messages Its messages, possibly none.
+ */
+public record PromptSegment(PromptSegmentEnum type, List<Message> messages) {
+
+    /**
+     * Flattens segments into the prompt messages, in segment order.
+     *
+     * @param segments The segments in prompt order.
+     * @return The prompt messages.
+     */
+    public static List<Message> messagesOf(List<PromptSegment> segments) {
+        return segments.stream()
+                .flatMap(segment -> segment.messages().stream())
+                .toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-parsed prompt template.
+ *
+ * The source text is split once into literal and placeholder segments ({@code {{name}}}), so rendering is a
+ * single pass over the segments into a buffer sized up-front from the literal length and the supplied values.
+ */
+public final class PromptTemplate {
+
+    private static final String PLACEHOLDER_START = "{{";
+    private static final String PLACEHOLDER_END = "}}";
+
+    private final String name;
+    private final List<Segment> segments;
+    private final int literalLength;
+    private final String staticText;
+
+    private PromptTemplate(String name, List<Segment> segments) {
+        this.name = name;
+        this.segments = segments;
+        this.literalLength = segments.stream()
+                .filter(segment -> !segment.placeholder())
+                .mapToInt(segment -> segment.text().length())
+                .sum();
+        boolean hasPlaceholders = segments.stream().anyMatch(Segment::placeholder);
+        this.staticText = hasPlaceholders ? null : render(Map.of());
+    }
+
+    /**
+     * Parses the template source into literal and placeholder segments.
+     *
+     * @param name   The template name, used for lookup and metrics.
+     * @param source The raw template text.
+     * @return The parsed template.
+     */
+    public static PromptTemplate parse(String name, String source) {
+        List<Segment> segments = new ArrayList<>();
+        String text = source.trim();
+        int position = 0;
+        while (position < text.length()) {
+            int start = text.indexOf(PLACEHOLDER_START, position);
+            int end = start == -1 ? -1 : text.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (start == -1 || end == -1) {
+                segments.add(new Segment(text.substring(position), false));
+                break;
+            }
+            if (start > position) {
+                segments.add(new Segment(text.substring(position, start), false));
+            }
+            segments.add(new Segment(text.substring(start + PLACEHOLDER_START.length(), end).trim(), true));
+            position = end + PLACEHOLDER_END.length();
+        }
+        return new PromptTemplate(name, Collections.unmodifiableList(segments));
+    }
+
+    /**
+     * Renders the template, substituting each placeholder with its value. Placeholders without a value are
+     * left in place unchanged.
+     *
+     * @param values The placeholder values by name.
+     * @return The rendered prompt text.
+     */
+    public String render(Map<String, String> values) {
+        if (staticText != null) {
+            return staticText;
+        }
+
+        int capacity = literalLength;
+        for (Segment segment : segments) {
+            if (segment.placeholder()) {
+                String value = values.get(segment.text());
+                capacity += value == null ? segment.text().length() + 4 : value.length();
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(capacity);
+        for (Segment segment : segments) {
+            if (!segment.placeholder()) {
+                builder.append(segment.text());
+                continue;
+            }
+            String value = values.get(segment.text());
+            if (value == null) {
+                builder.append(PLACEHOLDER_START).append(segment.text()).append(PLACEHOLDER_END);
+            } else {
+                builder.append(value);
+            }
+        }
+        return builder.toString();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private record Segment(String text, boolean placeholder) {
+    }
+}
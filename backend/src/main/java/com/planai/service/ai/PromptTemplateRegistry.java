@@ -0,0 +1,208 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Registry of compiled prompt templates.
+ *
+ * Templates are loaded once from {@code classpath:prompts/*.md} and parsed into {@link PromptTemplate}s. When
+ * {@code app.ai.prompts.watch-dir} is set, {@code *.md} files in that directory override the bundled templates
+ * of the same name and are reloaded whenever they change, so prompts can be tuned without a restart.
+ */
+@Component
+@Slf4j
+public class PromptTemplateRegistry {
+
+    private static final String CLASSPATH_PATTERN = "classpath:prompts/*.md";
+    private static final String TEMPLATE_EXTENSION = ".md";
+
+    private final ResourcePatternResolver resourceResolver;
+    private final MeterRegistry meterRegistry;
+    private final String watchDirectory;
+    private final Map<String, PromptTemplate> templates = new ConcurrentHashMap<>();
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public PromptTemplateRegistry(ResourcePatternResolver resourceResolver, MeterRegistry meterRegistry,
+            @Value("${app.ai.prompts.watch-dir:}") String watchDirectory) {
+        this.resourceResolver = resourceResolver;
+        this.meterRegistry = meterRegistry;
+        this.watchDirectory = watchDirectory;
+    }
+
+    @PostConstruct
+    void loadTemplates() {
+        try {
+            for (Resource resource : resourceResolver.getResources(CLASSPATH_PATTERN)) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                try (var inputStream = resource.getInputStream()) {
+                    register(templateName(filename), StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8),
+                            "classpath");
+                }
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to load prompt templates from " + CLASSPATH_PATTERN, exception);
+        }
+
+        if (!watchDirectory.isBlank()) {
+            Path directory = Path.of(watchDirectory);
+            loadDirectory(directory);
+            startWatching(directory);
+        }
+    }
+
+    @PreDestroy
+    void stopWatching() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            log.warn("Failed to close prompt template watcher", exception);
+        }
+        watchThread.interrupt();
+    }
+
+    /**
+     * Returns the compiled template with the given name.
+     *
+     * @param name The template name (file name without the .md extension).
+     * @return The compiled template.
+     * @throws AiGenerationException if no template with that name is registered.
+     */
+    public PromptTemplate get(String name) {
+        PromptTemplate template = templates.get(name);
+        if (template == null) {
+            throw new AiGenerationException("Failed to load prompt template: " + name);
+        }
+        return template;
+    }
+
+    /**
+     * Renders the named template with the given placeholder values, recording the render time.
+     *
+     * @param name   The template name.
+     * @param values The placeholder values by name.
+     * @return The rendered prompt text.
+     */
+    public String render(String name, Map<String, String> values) {
+        PromptTemplate template = get(name);
+        Timer timer = renderTimers.computeIfAbsent(name, key -> Timer.builder("planai.prompt.template.render")
+                .description("Time spent rendering a prompt template")
+                .tag("template", key)
+                .register(meterRegistry));
+        return timer.record(() -> template.render(values));
+    }
+
+    private void register(String name, String source, String origin) {
+        templates.put(name, PromptTemplate.parse(name, source));
+        Counter.builder("planai.prompt.template.loads")
+                .description("Number of times a prompt template was loaded and compiled")
+                .tag("template", name)
+                .tag("source", origin)
+                .register(meterRegistry)
+                .increment();
+        log.debug("Loaded prompt template '{}' from {}", name, origin);
+    }
+
+    private void loadDirectory(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            log.warn("Prompt template directory {} does not exist; using bundled templates only", directory);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMPLATE_EXTENSION)) {
+            for (Path file : files) {
+                loadFile(file);
+            }
+        } catch (IOException exception) {
+            log.warn("Failed to list prompt templates in {}", directory, exception);
+        }
+    }
+
+    private void loadFile(Path file) {
+        try {
+            register(templateName(file.getFileName().toString()), Files.readString(file, StandardCharsets.UTF_8),
+                    "filesystem");
+        } catch (IOException exception) {
+            // Keep serving the previous version; editors often write files in several steps.
+            log.warn("Failed to reload prompt template {}", file, exception);
+        }
+    }
+
+    private void startWatching(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException exception) {
+            log.warn("Failed to watch prompt template directory {}", directory, exception);
+            return;
+        }
+
+        watchThread = new Thread(() -> watch(directory), "prompt-template-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} for prompt template changes", directory);
+    }
+
+    private void watch(Path directory) {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException exception) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.context() instanceof Path changed
+                        && changed.getFileName().toString().endsWith(TEMPLATE_EXTENSION)) {
+                    loadFile(directory.resolve(changed));
+                }
+            }
+            if (!key.reset()) {
+                return;
+            }
+        }
+    }
+
+    private String templateName(String filename) {
+        return filename.endsWith(TEMPLATE_EXTENSION)
+                ? filename.substring(0, filename.length() - TEMPLATE_EXTENSION.length())
+                : filename;
+    }
+}
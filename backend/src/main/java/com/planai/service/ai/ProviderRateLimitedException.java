@@ -0,0 +1,20 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the AI provider answers 429 Too Many Requests, carrying how long it asked us to wait.
+ */
+public class ProviderRateLimitedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ProviderRateLimitedException(Duration retryAfter, String message) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
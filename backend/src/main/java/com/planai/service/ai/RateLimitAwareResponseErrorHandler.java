@@ -0,0 +1,67 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.ai.retry.RetryUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResponseErrorHandler;
+
+/**
+ * Response error handler for the AI provider's REST API that turns 429 responses into
+ * {@link ProviderRateLimitedException}s carrying the provider's Retry-After, and leaves every other error to
+ * Spring AI's default handling.
+ */
+public class RateLimitAwareResponseErrorHandler implements ResponseErrorHandler {
+
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    @Override
+    public boolean hasError(ClientHttpResponse response) throws IOException {
+        return RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER.hasError(response);
+    }
+
+    @Override
+    public void handleError(ClientHttpResponse response) throws IOException {
+        if (response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            String body = StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+            Duration retryAfter = parseRetryAfter(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            throw new ProviderRateLimitedException(retryAfter, "AI provider rate limit exceeded: " + body);
+        }
+        RetryUtils.DEFAULT_RESPONSE_ERROR_HANDLER.handleError(response);
+    }
+
+    /**
+     * Parses a Retry-After header given either in seconds or as an HTTP date.
+     *
+     * @param value The header value, possibly null.
+     * @return The delay to wait, at least one second.
+     */
+    public static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        try {
+            return max(Duration.ofMillis((long) (Double.parseDouble(value.trim()) * 1000)));
+        } catch (NumberFormatException ignored) {
+            // Not a number of seconds; try an HTTP date below.
+        }
+        try {
+            ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return max(Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt));
+        } catch (DateTimeParseException exception) {
+            return DEFAULT_RETRY_AFTER;
+        }
+    }
+
+    private static Duration max(Duration retryAfter) {
+        return retryAfter.compareTo(DEFAULT_RETRY_AFTER) < 0 ? DEFAULT_RETRY_AFTER : retryAfter;
+    }
+}
@@ -0,0 +1,214 @@
+package com.planai.service.ai;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.planai.model.entity.AiResponseCacheEntity;
+import com.planai.model.enums.AiEndpointEnum;
+import com.planai.repository.AiResponseCacheRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of complete AI responses, keyed by a SHA-256 hash of the model, its options and the normalized prompt.
+ *
+ * Lookups go to a bounded in-memory tier first and, when enabled, to a persistent tier in the database that
+ * survives restarts and is shared between instances. Caching is opt-in per {@link AiEndpointEnum}; failures of the
+ * persistent tier are logged and treated as misses.
+ */
+@Component
+@Slf4j
+public class ResponseCache {
+
+    private final AiResponseCacheRepository repository;
+    private final MeterRegistry meterRegistry;
+    private final String model;
+    private final String optionsFingerprint;
+    private final Set<AiEndpointEnum> enabledEndpoints;
+    private final boolean persistentEnabled;
+    private final Duration persistentTtl;
+    private final Cache<String, String> responses;
+
+    public ResponseCache(AiResponseCacheRepository repository, MeterRegistry meterRegistry,
+            @Value("${spring.ai.openai.chat.options.model}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:0.7}") Double temperature,
+            @Value("${app.ai.response-cache.endpoints:EXTRACT_PLAN}") Set<AiEndpointEnum> enabledEndpoints,
+            @Value("${app.ai.response-cache.maximum-size:200}") long maximumSize,
+            @Value("${app.ai.response-cache.ttl-minutes:60}") long ttlMinutes,
+            @Value("${app.ai.response-cache.persistent.enabled:false}") boolean persistentEnabled,
+            @Value("${app.ai.response-cache.persistent.ttl-hours:24}") long persistentTtlHours) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.model = model;
+        this.optionsFingerprint = "temperature=" + temperature;
+        this.enabledEndpoints = enabledEndpoints.isEmpty()
+                ? EnumSet.noneOf(AiEndpointEnum.class)
+                : EnumSet.copyOf(enabledEndpoints);
+        this.persistentEnabled = persistentEnabled;
+        this.persistentTtl = Duration.ofHours(persistentTtlHours);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "planai.ai.response-cache");
+    }
+
+    /**
+     * Returns whether responses for the endpoint are cached.
+     *
+     * @param endpoint The calling feature.
+     * @return true if caching is enabled for the endpoint.
+     */
+    public boolean isEnabled(AiEndpointEnum endpoint) {
+        return enabledEndpoints.contains(endpoint);
+    }
+
+    /**
+     * Computes the cache key for a prompt. Line endings and trailing whitespace are normalized so that prompts
+     * differing only in formatting share an entry.
+     *
+     * @param promptMessages The prompt messages.
+     * @return The hex-encoded SHA-256 key.
+     */
+    public String keyOf(List<Message> promptMessages) {
+        MessageDigest digest = sha256();
+        update(digest, model);
+        update(digest, optionsFingerprint);
+        for (Message message : promptMessages) {
+            update(digest, message.getMessageType().name());
+            update(digest, normalize(message.getContent()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Looks up a cached response, promoting persistent hits into memory.
+     *
+     * @param endpoint The calling feature.
+     * @param key      The cache key.
+     * @return The cached response, if any.
+     */
+    public Optional<String> get(AiEndpointEnum endpoint, String key) {
+        String response = responses.getIfPresent(key);
+        if (response != null) {
+            count(endpoint, "memory");
+            return Optional.of(response);
+        }
+        if (persistentEnabled) {
+            response = findPersistent(key);
+            if (response != null) {
+                responses.put(key, response);
+                count(endpoint, "persistent");
+                return Optional.of(response);
+            }
+        }
+        count(endpoint, "miss");
+        return Optional.empty();
+    }
+
+    /**
+     * Stores a response in all enabled tiers.
+     *
+     * @param endpoint The calling feature.
+     * @param key      The cache key.
+     * @param response The complete response.
+     */
+    public void put(AiEndpointEnum endpoint, String key, String response) {
+        responses.put(key, response);
+        if (!persistentEnabled) {
+            return;
+        }
+        try {
+            repository.save(AiResponseCacheEntity.builder()
+                    .keyHash(key)
+                    .endpoint(endpoint)
+                    .model(model)
+                    .response(response)
+                    .expiresAt(OffsetDateTime.now().plus(persistentTtl))
+                    .build());
+        } catch (DataAccessException exception) {
+            log.warn("Failed to store AI response in the persistent cache: {}", exception.getMessage());
+        }
+    }
+
+    private String findPersistent(String key) {
+        try {
+            return repository.findById(key)
+                    .filter(entry -> entry.getExpiresAt().isAfter(OffsetDateTime.now()))
+                    .map(AiResponseCacheEntity::getResponse)
+                    .orElse(null);
+        } catch (DataAccessException exception) {
+            log.warn("Failed to read the persistent AI response cache: {}", exception.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes expired entries of the persistent tier. Runs on the scheduler thread rather than inline in
+     * {@link #put}, so no request waits for the bulk delete.
+     */
+    @Scheduled(fixedDelayString = "${app.ai.response-cache.persistent.sweep-interval-minutes:60}",
+            initialDelayString = "${app.ai.response-cache.persistent.sweep-interval-minutes:60}",
+            timeUnit = TimeUnit.MINUTES)
+    public void sweepExpired() {
+        if (!persistentEnabled) {
+            return;
+        }
+        try {
+            int deleted = repository.deleteExpired(OffsetDateTime.now());
+            log.debug("Deleted {} expired AI response cache entries", deleted);
+        } catch (DataAccessException exception) {
+            log.warn("Failed to sweep the persistent AI response cache: {}", exception.getMessage());
+        }
+    }
+
+    private void count(AiEndpointEnum endpoint, String result) {
+        Counter.builder("planai.ai.response-cache.lookups")
+                .tag("endpoint", endpoint.name())
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String normalize(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.replace("\r\n", "\n").replaceAll("[ \\t]+\n", "\n").strip();
+    }
+
+    private void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        // Separator so that adjacent fields cannot run into each other.
+        digest.update((byte) 0);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available.", exception);
+        }
+    }
+}
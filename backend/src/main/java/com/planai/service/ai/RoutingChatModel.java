@@ -0,0 +1,391 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Chat model that spreads calls over several OpenAI-compatible endpoints.
+ *
+ * <ul>
+ * <li>Weighted routing: each call starts on an endpoint drawn at random in proportion to its weight.</li>
+ * <li>Hedging: when a blocking call has not answered within the endpoint's recent latency percentile, the same
+ * prompt is sent to a second endpoint. The first successful answer wins and the other request is cancelled,
+ * which interrupts the caller thread of its HTTP exchange and aborts it.</li>
+ * <li>Failover: a transient failure or rate limit moves the call to the next endpoint.</li>
+ * <li>Ejection: an endpoint with {@code ejectionThreshold} consecutive transient failures is skipped for
+ * {@code ejectionDuration}, unless every endpoint is ejected.</li>
+ * </ul>
+ *
+ * Streams are routed and fail over before their first chunk, but are not hedged.
+ */
+@Slf4j
+public class RoutingChatModel implements ChatModel {
+
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_LATENCY_SAMPLES = 10;
+
+    private final List<EndpointState> endpoints;
+    private final Policy policy;
+    private final ExecutorService executor;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates the router.
+     *
+     * @param endpoints     The endpoints, at least one.
+     * @param policy        Hedging and ejection settings.
+     * @param executor      Runs the individual endpoint calls so they can be raced and cancelled.
+     * @param meterRegistry Registry for the routing metrics.
+     */
+    public RoutingChatModel(List<Endpoint> endpoints, Policy policy, ExecutorService executor,
+            MeterRegistry meterRegistry) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        this.endpoints = endpoints.stream().map(EndpointState::new).toList();
+        this.policy = policy;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+
+        for (EndpointState endpoint : this.endpoints) {
+            Gauge.builder("planai.ai.routing.ejected", endpoint, state -> state.isEjected() ? 1 : 0)
+                    .description("Whether the AI endpoint is currently ejected for failing")
+                    .tag("endpoint", endpoint.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        List<EndpointState> candidates = candidates();
+        CompletionService<ChatResponse> completion = new ExecutorCompletionService<>(executor);
+        List<Future<ChatResponse>> inFlight = new ArrayList<>();
+        try {
+            inFlight.add(completion.submit(() -> invoke(candidates.get(0), prompt)));
+        } catch (RejectedExecutionException exception) {
+            // Router executor saturated: call directly, without hedging.
+            return invoke(candidates.get(0), prompt);
+        }
+
+        int next = 1;
+        boolean hedged = false;
+        Future<ChatResponse> hedgeFuture = null;
+        RuntimeException lastFailure = null;
+        try {
+            while (!inFlight.isEmpty()) {
+                boolean canHedge = policy.hedging() && !hedged && next < candidates.size();
+                Future<ChatResponse> done = canHedge
+                        ? completion.poll(hedgeDelay(candidates.get(0)).toNanos(), TimeUnit.NANOSECONDS)
+                        : completion.take();
+                if (done == null) {
+                    hedged = true;
+                    EndpointState hedge = candidates.get(next++);
+                    hedgeFuture = submit(completion, inFlight, hedge, prompt);
+                    if (hedgeFuture != null) {
+                        meterRegistry.counter("planai.ai.routing.hedges", "endpoint", hedge.name()).increment();
+                    }
+                    continue;
+                }
+                inFlight.remove(done);
+                try {
+                    ChatResponse response = done.get();
+                    if (hedgeFuture != null) {
+                        meterRegistry.counter("planai.ai.routing.hedge-outcomes",
+                                "winner", done == hedgeFuture ? "hedge" : "primary").increment();
+                    }
+                    return response;
+                } catch (ExecutionException exception) {
+                    RuntimeException failure = asRuntime(exception.getCause());
+                    if (!isFailoverable(failure)) {
+                        throw failure;
+                    }
+                    lastFailure = failure;
+                    if (inFlight.isEmpty() && next < candidates.size()) {
+                        EndpointState failover = candidates.get(next++);
+                        if (submit(completion, inFlight, failover, prompt) != null) {
+                            meterRegistry.counter("planai.ai.routing.failovers", "endpoint", failover.name())
+                                    .increment();
+                        }
+                    }
+                }
+            }
+            throw lastFailure;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AiGenerationException("Interrupted while waiting for the AI response.", exception);
+        } finally {
+            // Cancel the loser of a hedge; the interrupt aborts its HTTP request.
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return stream(prompt, candidates(), 0);
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return endpoints.get(0).model().getDefaultOptions();
+    }
+
+    private Flux<ChatResponse> stream(Prompt prompt, List<EndpointState> candidates, int index) {
+        EndpointState endpoint = candidates.get(index);
+        return Flux.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return endpoint.model().stream(prompt)
+                    .doOnNext(response -> emitted.set(true))
+                    .doOnComplete(endpoint::onSuccess)
+                    .doOnError(this::isFailoverable, exception -> endpoint.onFailure(policy))
+                    .onErrorResume(exception -> !emitted.get() && isFailoverable(exception)
+                            && index + 1 < candidates.size(), exception -> {
+                                meterRegistry.counter("planai.ai.routing.failovers",
+                                        "endpoint", candidates.get(index + 1).name()).increment();
+                                return stream(prompt, candidates, index + 1);
+                            });
+        });
+    }
+
+    private Future<ChatResponse> submit(CompletionService<ChatResponse> completion,
+            List<Future<ChatResponse>> inFlight, EndpointState endpoint, Prompt prompt) {
+        try {
+            Future<ChatResponse> future = completion.submit(() -> invoke(endpoint, prompt));
+            inFlight.add(future);
+            return future;
+        } catch (RejectedExecutionException exception) {
+            log.debug("Router executor saturated; not sending to {}", endpoint.name());
+            return null;
+        }
+    }
+
+    private ChatResponse invoke(EndpointState endpoint, Prompt prompt) {
+        long start = System.nanoTime();
+        try {
+            ChatResponse response = endpoint.model().call(prompt);
+            long elapsed = System.nanoTime() - start;
+            endpoint.onSuccess(elapsed);
+            meterRegistry.timer("planai.ai.routing.calls", "endpoint", endpoint.name(), "outcome", "success")
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            return response;
+        } catch (RuntimeException exception) {
+            // A cancelled hedge loser fails because we interrupted it, which says nothing about its health.
+            boolean cancelled = isInterruption(exception);
+            if (!cancelled && isFailoverable(exception)) {
+                endpoint.onFailure(policy);
+            }
+            meterRegistry.timer("planai.ai.routing.calls", "endpoint", endpoint.name(),
+                    "outcome", cancelled ? "cancelled" : "failure")
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw exception;
+        }
+    }
+
+    /**
+     * Orders the endpoints for one call: healthy endpoints in weighted random order, then ejected ones, soonest
+     * to return first, as a last resort.
+     */
+    private List<EndpointState> candidates() {
+        List<EndpointState> healthy = new ArrayList<>();
+        List<EndpointState> ejected = new ArrayList<>();
+        for (EndpointState endpoint : endpoints) {
+            (endpoint.isEjected() ? ejected : healthy).add(endpoint);
+        }
+
+        List<EndpointState> ordered = new ArrayList<>(endpoints.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!healthy.isEmpty()) {
+            int totalWeight = healthy.stream().mapToInt(EndpointState::weight).sum();
+            int pick = random.nextInt(totalWeight);
+            for (int i = 0; i < healthy.size(); i++) {
+                pick -= healthy.get(i).weight();
+                if (pick < 0) {
+                    ordered.add(healthy.remove(i));
+                    break;
+                }
+            }
+        }
+        ejected.sort(Comparator.comparingLong(EndpointState::ejectedUntil));
+        ordered.addAll(ejected);
+        return ordered;
+    }
+
+    private Duration hedgeDelay(EndpointState endpoint) {
+        long percentile = endpoint.latencyPercentile(policy.hedgePercentile());
+        if (percentile < 0) {
+            return policy.maxHedgeDelay();
+        }
+        long clamped = Math.max(policy.minHedgeDelay().toNanos(), Math.min(policy.maxHedgeDelay().toNanos(),
+                percentile));
+        return Duration.ofNanos(clamped);
+    }
+
+    private boolean isFailoverable(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderRateLimitedException) {
+                return true;
+            }
+        }
+        return AiRetryPolicy.isTransient(exception);
+    }
+
+    private static boolean isInterruption(Throwable exception) {
+        if (Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static RuntimeException asRuntime(Throwable exception) {
+        return exception instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new AiGenerationException("Failed to generate AI response.", exception);
+    }
+
+    /**
+     * An endpoint to route to.
+     *
+     * @param name   Name used in logs and metric tags.
+     * @param model  The chat model calling the endpoint.
+     * @param weight Relative share of calls that start on this endpoint.
+     */
+    public record Endpoint(String name, ChatModel model, int weight) {
+    }
+
+    /**
+     * Hedging and ejection settings.
+     *
+     * @param hedging           Whether to send hedge requests.
+     * @param hedgePercentile   Latency percentile of the first endpoint after which to hedge, e.g. 0.95.
+     * @param minHedgeDelay     Lower bound of the hedge delay.
+     * @param maxHedgeDelay     Upper bound of the hedge delay, also used until enough latencies are recorded.
+     * @param ejectionThreshold Consecutive transient failures after which an endpoint is ejected.
+     * @param ejectionDuration  How long an ejected endpoint is skipped.
+     */
+    public record Policy(boolean hedging, double hedgePercentile, Duration minHedgeDelay, Duration maxHedgeDelay,
+            int ejectionThreshold, Duration ejectionDuration) {
+    }
+
+    /**
+     * Health and recent latencies of one endpoint.
+     */
+    private static final class EndpointState {
+
+        private final Endpoint endpoint;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int latencyCount;
+        private int latencyIndex;
+        private int consecutiveFailures;
+        private volatile long ejectedUntil;
+
+        private EndpointState(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private String name() {
+            return endpoint.name();
+        }
+
+        private ChatModel model() {
+            return endpoint.model();
+        }
+
+        private int weight() {
+            return Math.max(1, endpoint.weight());
+        }
+
+        private long ejectedUntil() {
+            return ejectedUntil;
+        }
+
+        private boolean isEjected() {
+            return ejectedUntil != 0 && System.nanoTime() - ejectedUntil < 0;
+        }
+
+        private void onSuccess() {
+            lock.lock();
+            try {
+                consecutiveFailures = 0;
+                ejectedUntil = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onSuccess(long latencyNanos) {
+            lock.lock();
+            try {
+                consecutiveFailures = 0;
+                ejectedUntil = 0;
+                latencies[latencyIndex] = latencyNanos;
+                latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+                latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void onFailure(Policy policy) {
+            lock.lock();
+            try {
+                consecutiveFailures++;
+                if (consecutiveFailures >= policy.ejectionThreshold() && !isEjected()) {
+                    ejectedUntil = System.nanoTime() + policy.ejectionDuration().toNanos();
+                    log.warn("Ejecting AI endpoint {} for {} s after {} consecutive failures", name(),
+                            policy.ejectionDuration().toSeconds(), consecutiveFailures);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return The latency percentile in nanoseconds, or -1 while too few calls have been recorded.
+         */
+        private long latencyPercentile(double percentile) {
+            long[] samples;
+            lock.lock();
+            try {
+                if (latencyCount < MIN_LATENCY_SAMPLES) {
+                    return -1;
+                }
+                samples = Arrays.copyOf(latencies, latencyCount);
+            } finally {
+                lock.unlock();
+            }
+            Arrays.sort(samples);
+            int index = (int) Math.ceil(percentile * samples.length) - 1;
+            return samples[Math.max(0, Math.min(samples.length - 1, index))];
+        }
+    }
+}
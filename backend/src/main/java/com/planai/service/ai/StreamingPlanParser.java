@@ -0,0 +1,149 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.planai.exception.AiGenerationException;
+
+/**
+ * Parses a plan from a streamed AI completion, emitting each epic as soon as its closing brace arrives.
+ *
+ * Chunks are pushed into Jackson's non-blocking parser as they are generated. Only the tokens of the epic currently
+ * being read are buffered, so the complete plan is never held as one tree. Text before the first "{" (such as a
+ * Markdown code fence) and anything after the root object is ignored. Instances are not thread-safe and serve a
+ * single completion.
+ */
+public class StreamingPlanParser {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private boolean started;
+    private boolean finished;
+    private boolean inEpics;
+    private boolean sawEpics;
+    private int depth;
+    private TokenBuffer currentEpic;
+    private char pendingHighSurrogate;
+
+    public StreamingPlanParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException exception) {
+            throw new AiGenerationException("Failed to create streaming JSON parser.", exception);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next chunk of the completion.
+     *
+     * @param chunk The chunk of generated text.
+     * @return The epics completed by this chunk, in order.
+     */
+    public List<JsonNode> feed(String chunk) {
+        if (finished || chunk.isEmpty()) {
+            return List.of();
+        }
+        String text = chunk;
+        if (pendingHighSurrogate != 0) {
+            text = pendingHighSurrogate + text;
+            pendingHighSurrogate = 0;
+        }
+        if (Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            // Keep a split surrogate pair together so it is encoded as one code point.
+            pendingHighSurrogate = text.charAt(text.length() - 1);
+            text = text.substring(0, text.length() - 1);
+        }
+        if (!started) {
+            int startIndex = text.indexOf('{');
+            if (startIndex == -1) {
+                return List.of();
+            }
+            started = true;
+            text = text.substring(startIndex);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException exception) {
+            throw new AiGenerationException("Failed to parse AI response JSON.", exception);
+        }
+    }
+
+    /**
+     * Signals the end of the completion and checks that a complete plan was read.
+     *
+     * @return Any epics completed by the end of input.
+     */
+    public List<JsonNode> finish() {
+        List<JsonNode> epics = List.of();
+        if (started && !finished) {
+            try {
+                feeder.endOfInput();
+                epics = drain();
+            } catch (IOException exception) {
+                throw new AiGenerationException("Failed to parse AI response JSON.", exception);
+            }
+        }
+        if (!started) {
+            throw new AiGenerationException("AI response did not contain valid JSON.");
+        }
+        if (!sawEpics) {
+            throw new AiGenerationException("AI response did not include epics array.");
+        }
+        if (!finished) {
+            throw new AiGenerationException("AI response ended before the plan was complete.");
+        }
+        return epics;
+    }
+
+    private List<JsonNode> drain() throws IOException {
+        List<JsonNode> epics = new ArrayList<>();
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (currentEpic != null) {
+                currentEpic.copyCurrentEvent(parser);
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    if (token == JsonToken.START_OBJECT && inEpics && depth == 2) {
+                        currentEpic = new TokenBuffer(parser);
+                        currentEpic.copyCurrentEvent(parser);
+                    } else if (token == JsonToken.START_ARRAY && depth == 1
+                            && "epics".equals(parser.currentName())) {
+                        inEpics = true;
+                        sawEpics = true;
+                    }
+                    depth++;
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (currentEpic != null && depth == 2) {
+                        JsonNode epic = objectMapper.readTree(currentEpic.asParser(objectMapper));
+                        epics.add(epic);
+                        currentEpic = null;
+                    } else if (inEpics && depth == 1) {
+                        inEpics = false;
+                    } else if (depth == 0) {
+                        finished = true;
+                    }
+                }
+                default -> {
+                    // Scalars and field names only matter inside an epic, where they are buffered above.
+                }
+            }
+        }
+        return epics;
+    }
+}
@@ -0,0 +1,351 @@
+package com.planai.service.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Chat model that answers without a provider, for load tests and profiling offline or in CI.
+ *
+ * <ul>
+ * <li>SYNTHETIC: generates a deterministic answer per prompt. Plan extraction prompts get valid plan JSON of the
+ * configured size, in the shape the prompt asks for; every other prompt gets prose.</li>
+ * <li>REPLAY: answers from a cassette recorded earlier, keyed by a hash of the prompt messages.</li>
+ * <li>RECORD: answers from the cassette when it has the prompt, otherwise calls the real model and appends the
+ * exchange to the cassette.</li>
+ * </ul>
+ *
+ * Stubbed answers wait for a first-token latency drawn from a log-normal distribution around the configured
+ * median, plus a fixed time per token, and stream in token-sized chunks at that pace. The latency sequence is
+ * seeded, so runs with the same calls in the same order see the same latencies.
+ */
+@Slf4j
+public class StubChatModel implements ChatModel {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String[] PRIORITIES = {"HIGH", "MEDIUM", "LOW"};
+    private static final String[] WORDS = {"the", "project", "needs", "a", "service", "that", "stores", "user",
+            "data", "and", "exposes", "it", "through", "an", "api", "with", "validation", "for", "each", "request",
+            "so", "teams", "can", "plan", "their", "work", "in", "small", "iterations"};
+
+    private final Settings settings;
+    private final ChatModel delegate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Random latencyRandom;
+    private final Map<String, String> cassette = new ConcurrentHashMap<>();
+    private final ReentrantLock cassetteLock = new ReentrantLock();
+
+    /**
+     * Creates the stub and loads the cassette, if there is one.
+     *
+     * @param settings      Mode, cassette, latency and synthetic response settings.
+     * @param delegate      The real model, only called in RECORD mode.
+     * @param objectMapper  Mapper for cassette entries and synthetic plans.
+     * @param meterRegistry Registry for the stub metrics.
+     */
+    public StubChatModel(Settings settings, ChatModel delegate, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        if (settings.mode() == Mode.RECORD && delegate == null) {
+            throw new IllegalArgumentException("RECORD mode needs a model to record");
+        }
+        this.settings = settings;
+        this.delegate = delegate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.latencyRandom = new Random(settings.seed());
+        if (settings.mode() != Mode.SYNTHETIC) {
+            loadCassette();
+        }
+        log.info("Stub chat model active in {} mode with {} cassette entries", settings.mode(), cassette.size());
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String key = keyOf(prompt);
+        String recorded = cassette.get(key);
+        if (recorded == null && settings.mode() == Mode.RECORD) {
+            String response = delegate.call(prompt).getResult().getOutput().getContent();
+            record(key, prompt, response);
+            return new ChatResponse(List.of(new Generation(response)));
+        }
+
+        String response = recorded != null ? recorded : synthesize(key, prompt);
+        count(recorded != null ? "cassette" : "synthetic");
+        sleep(firstTokenLatency().plus(settings.perTokenLatency().multipliedBy(tokens(response).size())));
+        return new ChatResponse(List.of(new Generation(response)));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        String key = keyOf(prompt);
+        String recorded = cassette.get(key);
+        if (recorded == null && settings.mode() == Mode.RECORD) {
+            StringBuilder content = new StringBuilder();
+            return delegate.stream(prompt)
+                    .doOnNext(chunk -> {
+                        if (chunk.getResult() != null && chunk.getResult().getOutput().getContent() != null) {
+                            content.append(chunk.getResult().getOutput().getContent());
+                        }
+                    })
+                    .doOnComplete(() -> record(key, prompt, content.toString()));
+        }
+
+        return Mono.fromCallable(() -> recorded != null ? recorded : synthesize(key, prompt))
+                .doOnNext(response -> count(recorded != null ? "cassette" : "synthetic"))
+                .flatMapMany(response -> {
+                    Flux<String> tokens = Flux.fromIterable(tokens(response));
+                    Duration perToken = settings.perTokenLatency();
+                    return (perToken.isZero() ? tokens : tokens.delayElements(perToken))
+                            .delaySubscription(firstTokenLatency());
+                })
+                .map(token -> new ChatResponse(List.of(new Generation(token))));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate != null ? delegate.getDefaultOptions() : OpenAiChatOptions.builder().build();
+    }
+
+    /**
+     * @return The number of prompts the cassette can answer.
+     */
+    public int cassetteSize() {
+        return cassette.size();
+    }
+
+    private String synthesize(String key, Prompt prompt) {
+        if (settings.mode() == Mode.REPLAY && !settings.fallbackToSynthetic()) {
+            throw new AiGenerationException("No cassette entry for prompt " + key);
+        }
+        String text = promptText(prompt);
+        // Deterministic per prompt, independent of call order
+        Random random = new Random(settings.seed() ^ key.hashCode());
+        boolean wantsEpics = text.contains("\"epics\"");
+        boolean wantsStories = text.contains("\"userStories\"");
+        if (wantsEpics && wantsStories) {
+            ObjectNode plan = objectMapper.createObjectNode();
+            addEpics(plan.putArray("epics"), random, true);
+            return plan.toString();
+        }
+        if (wantsEpics) {
+            ObjectNode outline = objectMapper.createObjectNode();
+            addEpics(outline.putArray("epics"), random, false);
+            return outline.toString();
+        }
+        if (wantsStories) {
+            ObjectNode stories = objectMapper.createObjectNode();
+            addStories(stories.putArray("userStories"), random, 1);
+            return stories.toString();
+        }
+        return prose(random);
+    }
+
+    private void addEpics(ArrayNode epics, Random random, boolean withStories) {
+        for (int e = 1; e <= settings.epics(); e++) {
+            ObjectNode epic = epics.addObject()
+                    .put("title", "Epic " + e + ": " + phrase(random, 3))
+                    .put("description", phrase(random, 12))
+                    .put("priority", PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            if (withStories) {
+                addStories(epic.putArray("userStories"), random, e);
+            }
+        }
+    }
+
+    private void addStories(ArrayNode stories, Random random, int epicNumber) {
+        for (int s = 1; s <= settings.storiesPerEpic(); s++) {
+            ObjectNode story = stories.addObject()
+                    .put("title", "Story " + epicNumber + "." + s + ": " + phrase(random, 3))
+                    .put("asA", "user")
+                    .put("iWant", phrase(random, 6))
+                    .put("soThat", phrase(random, 6))
+                    .put("priority", PRIORITIES[random.nextInt(PRIORITIES.length)]);
+            ArrayNode tasks = story.putArray("tasks");
+            for (int t = 1; t <= settings.tasksPerStory(); t++) {
+                tasks.addObject()
+                        .put("title", "Task " + epicNumber + "." + s + "." + t + ": " + phrase(random, 4))
+                        .put("description", phrase(random, 16))
+                        .put("estimatedHours", 1 + random.nextInt(12));
+            }
+        }
+    }
+
+    private String prose(Random random) {
+        return phrase(random, settings.chatWords()) + ".";
+    }
+
+    private static String phrase(Random random, int words) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                phrase.append(' ');
+            }
+            phrase.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+
+    /**
+     * Splits a response into chunks of roughly one token each.
+     */
+    private static List<String> tokens(String response) {
+        List<String> tokens = new ArrayList<>(response.length() / CHARS_PER_TOKEN + 1);
+        for (int start = 0; start < response.length(); start += CHARS_PER_TOKEN) {
+            tokens.add(response.substring(start, Math.min(response.length(), start + CHARS_PER_TOKEN)));
+        }
+        return tokens;
+    }
+
+    private Duration firstTokenLatency() {
+        long medianNanos = settings.firstTokenLatency().toNanos();
+        if (medianNanos == 0 || settings.latencySigma() <= 0) {
+            return settings.firstTokenLatency();
+        }
+        return Duration.ofNanos(Math.round(medianNanos * Math.exp(settings.latencySigma()
+                * latencyRandom.nextGaussian())));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new AiGenerationException("Interrupted while waiting for the stub response.", exception);
+        }
+    }
+
+    private void count(String source) {
+        meterRegistry.counter("planai.ai.stub.responses", "source", source).increment();
+    }
+
+    private static String promptText(Prompt prompt) {
+        StringBuilder text = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            text.append(message.getMessageType().getValue()).append('\n').append(message.getContent()).append('\0');
+        }
+        return text.toString();
+    }
+
+    private static String keyOf(Prompt prompt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(promptText(prompt).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+
+    private void loadCassette() {
+        Path path = settings.cassette();
+        if (!Files.exists(path)) {
+            if (settings.mode() == Mode.REPLAY) {
+                throw new IllegalStateException("Cassette not found: " + path);
+            }
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    CassetteEntry entry = objectMapper.readValue(line, CassetteEntry.class);
+                    cassette.put(entry.key(), entry.response());
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to read cassette " + path, exception);
+        }
+    }
+
+    private void record(String key, Prompt prompt, String response) {
+        List<CassetteMessage> messages = prompt.getInstructions().stream()
+                .map(message -> new CassetteMessage(message.getMessageType().getValue(), message.getContent()))
+                .toList();
+        cassetteLock.lock();
+        try {
+            if (cassette.putIfAbsent(key, response) != null) {
+                return;
+            }
+            Path path = settings.cassette();
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            String line = objectMapper.writeValueAsString(new CassetteEntry(key, messages, response)) + "\n";
+            Files.writeString(path, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            count("recorded");
+        } catch (IOException exception) {
+            log.warn("Failed to append to cassette {}", settings.cassette(), exception);
+        } finally {
+            cassetteLock.unlock();
+        }
+    }
+
+    /**
+     * Where stubbed answers come from.
+     */
+    public enum Mode {
+        SYNTHETIC,
+        REPLAY,
+        RECORD
+    }
+
+    /**
+     * @param mode                Where answers come from.
+     * @param cassette            The cassette file, one JSON exchange per line.
+     * @param fallbackToSynthetic Whether REPLAY synthesizes answers for prompts missing from the cassette
+     *                            instead of failing.
+     * @param firstTokenLatency   Median time to the first token of a stubbed answer.
+     * @param latencySigma        Log-normal spread of the first-token latency; 0 for a fixed latency.
+     * @param perTokenLatency     Time per generated token of a stubbed answer.
+     * @param seed                Seed of the latency sequence and the synthetic answers.
+     * @param epics               Epics per synthetic plan.
+     * @param storiesPerEpic      User stories per synthetic epic.
+     * @param tasksPerStory       Tasks per synthetic user story.
+     * @param chatWords           Words per synthetic prose answer.
+     */
+    public record Settings(Mode mode, Path cassette, boolean fallbackToSynthetic, Duration firstTokenLatency,
+            double latencySigma, Duration perTokenLatency, long seed, int epics, int storiesPerEpic,
+            int tasksPerStory, int chatWords) {
+    }
+
+    /**
+     * One recorded exchange; the prompt messages are kept for reading the cassette, only the key is matched.
+     */
+    record CassetteEntry(String key, List<CassetteMessage> messages, String response) {
+    }
+
+    record CassetteMessage(String type, String content) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.planai.service.ai;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Pairs existing plan items with freshly extracted ones by title similarity and position.
+ *
+ * Identical titles are paired first. The remaining candidates are scored by the Dice coefficient of their title
+ * bigrams, nudged by how close their relative positions are, and paired greedily from the best score down. Pairs
+ * whose titles are not similar enough are left unmatched.
+ */
+final class TitleMatcher {
+
+    private static final double MIN_TITLE_SIMILARITY = 0.5;
+    private static final double POSITION_WEIGHT = 0.15;
+
+    private TitleMatcher() {
+    }
+
+    /**
+     * Matches extracted titles to existing items.
+     *
+     * @param existing        The existing items, in plan order.
+     * @param titleOf         Returns the title of an existing item.
+     * @param extractedTitles The extracted titles, in plan order.
+     * @return For each extracted title, the matched existing item or null if it is new.
+     */
+    static <T> List<T> match(List<T> existing, Function<T, String> titleOf, List<String> extractedTitles) {
+        List<T> matches = new ArrayList<>(extractedTitles.size());
+        for (int i = 0; i < extractedTitles.size(); i++) {
+            matches.add(null);
+        }
+        boolean[] taken = new boolean[existing.size()];
+
+        Map<String, List<Integer>> existingByTitle = new HashMap<>();
+        for (int i = 0; i < existing.size(); i++) {
+            existingByTitle.computeIfAbsent(normalize(titleOf.apply(existing.get(i))), key -> new ArrayList<>())
+                    .add(i);
+        }
+        for (int j = 0; j < extractedTitles.size(); j++) {
+            List<Integer> candidates = existingByTitle.get(normalize(extractedTitles.get(j)));
+            if (candidates != null && !candidates.isEmpty()) {
+                int i = candidates.remove(0);
+                taken[i] = true;
+                matches.set(j, existing.get(i));
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int j = 0; j < extractedTitles.size(); j++) {
+            if (matches.get(j) != null) {
+                continue;
+            }
+            String extractedTitle = normalize(extractedTitles.get(j));
+            for (int i = 0; i < existing.size(); i++) {
+                if (taken[i]) {
+                    continue;
+                }
+                double titleSimilarity = similarity(normalize(titleOf.apply(existing.get(i))), extractedTitle);
+                if (titleSimilarity >= MIN_TITLE_SIMILARITY) {
+                    double positionDistance = Math.abs(relativePosition(i, existing.size())
+                            - relativePosition(j, extractedTitles.size()));
+                    double score = (1 - POSITION_WEIGHT) * titleSimilarity + POSITION_WEIGHT * (1 - positionDistance);
+                    candidates.add(new Candidate(i, j, score));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        for (Candidate candidate : candidates) {
+            if (!taken[candidate.existingIndex()] && matches.get(candidate.extractedIndex()) == null) {
+                taken[candidate.existingIndex()] = true;
+                matches.set(candidate.extractedIndex(), existing.get(candidate.existingIndex()));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Dice coefficient of the character bigrams of two normalized titles, between 0 and 1.
+     */
+    static double similarity(String first, String second) {
+        if (first.equals(second)) {
+            return 1;
+        }
+        if (first.length() < 2 || second.length() < 2) {
+            return 0;
+        }
+        Map<Integer, Integer> bigrams = new HashMap<>();
+        for (int i = 0; i < first.length() - 1; i++) {
+            bigrams.merge(bigram(first, i), 1, Integer::sum);
+        }
+        int shared = 0;
+        for (int i = 0; i < second.length() - 1; i++) {
+            Integer count = bigrams.get(bigram(second, i));
+            if (count != null && count > 0) {
+                bigrams.put(bigram(second, i), count - 1);
+                shared++;
+            }
+        }
+        return 2.0 * shared / (first.length() - 1 + second.length() - 1);
+    }
+
+    static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    private static int bigram(String value, int index) {
+        return (value.charAt(index) << 16) | value.charAt(index + 1);
+    }
+
+    private static double relativePosition(int index, int size) {
+        return size <= 1 ? 0 : (double) index / (size - 1);
+    }
+
+    private record Candidate(int existingIndex, int extractedIndex, double score) {
+    }
+}
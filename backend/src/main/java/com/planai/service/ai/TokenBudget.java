@@ -0,0 +1,188 @@
+package com.planai.service.ai;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.planai.exception.AiBudgetExceededException;
+import com.planai.model.entity.ProjectTokenUsageEntity;
+import com.planai.repository.ProjectRepository;
+import com.planai.repository.ProjectTokenUsageRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Accounts the provider tokens every project uses per day (UTC) and enforces a daily per-project budget, so one
+ * runaway project cannot use up the provider quota of all others.
+ *
+ * Once a project has used {@code degrade-at-percent} of its budget, its calls go to the cheaper degraded model,
+ * and chat prompts are sized for that model's context budget. Once the budget is used up, calls are rejected
+ * with {@link AiBudgetExceededException} until the next day. Today's usage is read from the database at most
+ * once per {@code usage-cache-seconds} per project, so other instances' usage is seen with that delay.
+ */
+@Component
+@Slf4j
+public class TokenBudget {
+
+    private final ProjectTokenUsageRepository usageRepository;
+    private final ProjectRepository projectRepository;
+    private final MeterRegistry meterRegistry;
+    private final Cache<DailyKey, AtomicLong> usedToday;
+    private final String model;
+    private final long dailyProjectTokens;
+    private final int degradeAtPercent;
+    private final String degradedModel;
+
+    public TokenBudget(ProjectTokenUsageRepository usageRepository, ProjectRepository projectRepository,
+            MeterRegistry meterRegistry,
+            @Value("${spring.ai.openai.chat.options.model}") String model,
+            @Value("${app.ai.budget.daily-project-tokens:0}") long dailyProjectTokens,
+            @Value("${app.ai.budget.degrade-at-percent:80}") int degradeAtPercent,
+            @Value("${app.ai.budget.degraded-model:}") String degradedModel,
+            @Value("${app.ai.budget.usage-cache-seconds:10}") long usageCacheSeconds) {
+        this.usageRepository = usageRepository;
+        this.projectRepository = projectRepository;
+        this.meterRegistry = meterRegistry;
+        this.model = model;
+        this.dailyProjectTokens = dailyProjectTokens;
+        this.degradeAtPercent = degradeAtPercent;
+        this.degradedModel = degradedModel;
+        this.usedToday = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(usageCacheSeconds))
+                .build();
+    }
+
+    /**
+     * Checks the project's budget before a call reaches the provider.
+     *
+     * @param context The call.
+     * @return The call, switched to the degraded model if the project is close to its budget.
+     * @throws AiBudgetExceededException if the project has used up today's budget.
+     */
+    public AiCallContext admit(AiCallContext context) {
+        if (context.projectId() == null || dailyProjectTokens <= 0) {
+            return context;
+        }
+        long used = usedToday(context.projectId());
+        if (used >= dailyProjectTokens) {
+            meterRegistry.counter("planai.ai.budget.rejected", "endpoint", context.endpoint().name()).increment();
+            throw new AiBudgetExceededException("The project has used its daily AI token budget; it resets at "
+                    + "midnight UTC.", secondsUntilReset());
+        }
+        if (context.model() == null && isDegraded(used)) {
+            meterRegistry.counter("planai.ai.budget.degraded", "endpoint", context.endpoint().name()).increment();
+            return context.withModel(degradedModel);
+        }
+        return context;
+    }
+
+    /**
+     * Returns the model the project's next calls will use, for sizing prompts to its context budget.
+     *
+     * @param projectId The ID of the project.
+     * @return The degraded model if the project is close to its budget, otherwise the configured model.
+     */
+    public String modelFor(Long projectId) {
+        return dailyProjectTokens > 0 && isDegraded(usedToday(projectId)) ? degradedModel : model;
+    }
+
+    /**
+     * Adds a call's usage to its project's usage of the day. Accounting failures are logged, never thrown, so
+     * they cannot fail a call that already succeeded.
+     *
+     * @param context The call.
+     * @param usage   The tokens the call used.
+     */
+    public void record(AiCallContext context, TokenUsage usage) {
+        String endpoint = context.endpoint().name();
+        meterRegistry.counter("planai.ai.tokens", "endpoint", endpoint, "type", "prompt")
+                .increment(usage.promptTokens());
+        meterRegistry.counter("planai.ai.tokens", "endpoint", endpoint, "type", "completion")
+                .increment(usage.completionTokens());
+        if (context.projectId() == null || usage.totalTokens() == 0) {
+            return;
+        }
+
+        LocalDate today = today();
+        try {
+            if (usageRepository.addUsage(context.projectId(), today, usage.promptTokens(),
+                    usage.completionTokens()) == 0) {
+                insertUsage(context.projectId(), today, usage);
+            }
+        } catch (DataAccessException exception) {
+            log.warn("Failed to record token usage of project {}", context.projectId(), exception);
+        }
+        AtomicLong used = usedToday.getIfPresent(new DailyKey(context.projectId(), today));
+        if (used != null) {
+            used.addAndGet(usage.totalTokens());
+        }
+    }
+
+    /**
+     * @param projectId The ID of the project.
+     * @return The tokens the project used today (UTC).
+     */
+    public long usedToday(Long projectId) {
+        DailyKey key = new DailyKey(projectId, today());
+        // Not Cache.get(key, loader): the loader would run the query inside the cache's compute lock.
+        AtomicLong used = usedToday.getIfPresent(key);
+        if (used == null) {
+            used = new AtomicLong(usageRepository.sumTokens(projectId, key.date()));
+            usedToday.put(key, used);
+        }
+        return used.get();
+    }
+
+    /**
+     * @return The daily token budget per project; 0 when budgets are not enforced.
+     */
+    public long dailyProjectTokens() {
+        return dailyProjectTokens;
+    }
+
+    /**
+     * @return The current budget day.
+     */
+    public LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private boolean isDegraded(long used) {
+        return !degradedModel.isBlank() && used * 100 >= dailyProjectTokens * degradeAtPercent;
+    }
+
+    private void insertUsage(Long projectId, LocalDate date, TokenUsage usage) {
+        try {
+            usageRepository.save(ProjectTokenUsageEntity.builder()
+                    .project(projectRepository.getReferenceById(projectId))
+                    .usageDate(date)
+                    .promptTokens(usage.promptTokens())
+                    .completionTokens(usage.completionTokens())
+                    .calls(1)
+                    .build());
+        } catch (DataIntegrityViolationException exception) {
+            // Another call inserted the day's row first.
+            usageRepository.addUsage(projectId, date, usage.promptTokens(), usage.completionTokens());
+        }
+    }
+
+    private long secondsUntilReset() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime reset = today().plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        return Math.max(1, Duration.between(now, reset).toSeconds());
+    }
+
+    private record DailyKey(Long projectId, LocalDate date) {
+    }
+}
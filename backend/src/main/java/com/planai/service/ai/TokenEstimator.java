@@ -0,0 +1,45 @@
+package com.planai.service.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cheap, tokenizer-free estimate of how many tokens a text occupies in a prompt.
+ *
+ * Uses a characters-per-token ratio (about 4 for English text with BPE tokenizers) plus a small fixed overhead
+ * per chat message for the role and separators. Good enough to budget prompts; not an exact count.
+ */
+@Component
+public class TokenEstimator {
+
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final double charsPerToken;
+
+    public TokenEstimator(@Value("${app.ai.context.chars-per-token:4.0}") double charsPerToken) {
+        this.charsPerToken = charsPerToken;
+    }
+
+    /**
+     * Estimates the tokens of a raw text.
+     *
+     * @param text The text to estimate.
+     * @return The estimated number of tokens.
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    /**
+     * Estimates the tokens of a text sent as one chat message, including the per-message overhead.
+     *
+     * @param content The message content.
+     * @return The estimated number of tokens.
+     */
+    public int estimateMessage(String content) {
+        return estimate(content) + MESSAGE_OVERHEAD_TOKENS;
+    }
+}
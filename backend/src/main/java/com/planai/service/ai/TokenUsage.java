@@ -0,0 +1,27 @@
+package com.planai.service.ai;
+
+/**
+ * Tokens consumed by one or more model calls.
+ *
+ * @param promptTokens     Tokens of the prompts sent.
+ * @param completionTokens Tokens of the generated responses.
+ */
+public record TokenUsage(long promptTokens, long completionTokens) {
+
+    public static final TokenUsage NONE = new TokenUsage(0, 0);
+
+    /**
+     * @return The prompt and completion tokens together.
+     */
+    public long totalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    /**
+     * @param other Usage to add.
+     * @return The sum of both usages.
+     */
+    public TokenUsage plus(TokenUsage other) {
+        return new TokenUsage(promptTokens + other.promptTokens, completionTokens + other.completionTokens);
+    }
+}
@@ -0,0 +1,25 @@
+package com.planai.service.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums the token usage of the calls made for one operation, e.g. all calls of a map-reduce extraction. Safe for
+ * calls completing on several threads.
+ */
+public class TokenUsageCollector {
+
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+
+    public void add(TokenUsage usage) {
+        promptTokens.add(usage.promptTokens());
+        completionTokens.add(usage.completionTokens());
+    }
+
+    /**
+     * @return The usage of all calls added so far.
+     */
+    public TokenUsage total() {
+        return new TokenUsage(promptTokens.sum(), completionTokens.sum());
+    }
+}
@@ -1,127 +1,399 @@
 package com.planai.service.impl;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StreamUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.planai.exception.AiGenerationException;
+import com.planai.exception.ApiException;
 import com.planai.exception.ResourceNotFoundException;
+import com.planai.exception.RetryableApiException;
+import com.planai.mapper.EpicMapper;
 import com.planai.mapper.ProjectMapper;
 import com.planai.model.dto.request.ChatRequest;
 import com.planai.model.dto.response.ChatResponse;
+import com.planai.model.dto.response.ChatStreamEvent;
+import com.planai.model.dto.response.ExtractionStreamEvent;
 import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.dto.response.TokenUsageResponse;
 import com.planai.model.entity.ConversationEntity;
 import com.planai.model.entity.EpicEntity;
 import com.planai.model.entity.MessageEntity;
 import com.planai.model.entity.ProjectEntity;
-import com.planai.model.entity.TaskEntity;
-import com.planai.model.entity.UserStoryEntity;
+import com.planai.model.enums.AiEndpointEnum;
+import com.planai.model.enums.ChatStreamEventTypeEnum;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.model.enums.ExtractionPhaseEnum;
+import com.planai.model.enums.ExtractionStreamEventTypeEnum;
 import com.planai.model.enums.MessageRoleEnum;
-import com.planai.model.enums.PriorityEnum;
-import com.planai.model.enums.StatusEnum;
+import com.planai.model.enums.PromptSegmentEnum;
 import com.planai.repository.ConversationRepository;
+import com.planai.repository.EpicRepository;
 import com.planai.repository.MessageRepository;
 import com.planai.repository.ProjectRepository;
+import com.planai.repository.ProjectTokenUsageRepository;
 import com.planai.service.AiService;
+import com.planai.service.ai.AiCallContext;
+import com.planai.service.ai.AiMetrics;
+import com.planai.service.ai.AiTaskExecutors;
+import com.planai.service.ai.AssistantClient;
+import com.planai.service.ai.ContextWindowManager;
+import com.planai.service.ai.ConversationHistoryWriter;
+import com.planai.service.ai.ConversationSummarizer;
+import com.planai.service.ai.ExtractionCoordinator;
+import com.planai.service.ai.ExtractionProgressListener;
+import com.planai.service.ai.FanOutPlanExtractor;
+import com.planai.service.ai.MapReducePlanExtractor;
+import com.planai.service.ai.PlanApplier;
+import com.planai.service.ai.ProjectContextCache;
+import com.planai.service.ai.PromptPrefixTracker;
+import com.planai.service.ai.PromptSegment;
+import com.planai.service.ai.PromptTemplateRegistry;
+import com.planai.service.ai.StreamingPlanParser;
+import com.planai.service.ai.TokenBudget;
+import com.planai.service.ai.TokenEstimator;
+import com.planai.service.ai.TokenUsage;
+import com.planai.service.ai.TokenUsageCollector;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Implementation of {@link AiService} using Spring AI.
  */
 @Service
+@Slf4j
 public class AiServiceImpl implements AiService {
 
-    private static final String PLANNING_PROMPT_PATH = "classpath:prompts/planning-assistant.md";
-    private static final String STRUCTURE_PROMPT_PATH = "classpath:prompts/structure-plan.md";
+    private static final String PLANNING_PROMPT = "planning-assistant";
+    private static final String STRUCTURE_PROMPT = "structure-plan";
+    private static final String INCREMENTAL_STRUCTURE_PROMPT = "structure-plan-incremental";
+    private static final String CHAT_OPERATION = "chat";
+    private static final String CHAT_STREAM_OPERATION = "chat-stream";
+    private static final String EXTRACTION_STREAM_OPERATION = "extraction-stream";
 
-    private final ChatClient chatClient;
+    private final AssistantClient assistantClient;
     private final ProjectRepository projectRepository;
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
+    private final EpicRepository epicRepository;
     private final ProjectMapper projectMapper;
+    private final EpicMapper epicMapper;
     private final ObjectMapper objectMapper;
-    private final ResourceLoader resourceLoader;
-
-    public AiServiceImpl(ChatClient chatClient, ProjectRepository projectRepository,
+    private final PromptTemplateRegistry promptTemplates;
+    private final ProjectContextCache projectContextCache;
+    private final ContextWindowManager contextWindowManager;
+    private final TokenEstimator tokenEstimator;
+    private final ConversationSummarizer conversationSummarizer;
+    private final PlanApplier planApplier;
+    private final AiTaskExecutors taskExecutors;
+    private final ExtractionCoordinator extractionCoordinator;
+    private final MapReducePlanExtractor mapReducePlanExtractor;
+    private final FanOutPlanExtractor fanOutPlanExtractor;
+    private final AiMetrics aiMetrics;
+    private final TokenBudget tokenBudget;
+    private final PromptPrefixTracker promptPrefixTracker;
+    private final ProjectTokenUsageRepository tokenUsageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AiServiceImpl(AssistantClient assistantClient, ProjectRepository projectRepository,
             ConversationRepository conversationRepository, MessageRepository messageRepository,
-            ProjectMapper projectMapper, ObjectMapper objectMapper, ResourceLoader resourceLoader) {
-        this.chatClient = chatClient;
+            EpicRepository epicRepository, ProjectMapper projectMapper, EpicMapper epicMapper,
+            ObjectMapper objectMapper,
+            PromptTemplateRegistry promptTemplates, ProjectContextCache projectContextCache,
+            ContextWindowManager contextWindowManager, TokenEstimator tokenEstimator,
+            ConversationSummarizer conversationSummarizer, PlanApplier planApplier, AiTaskExecutors taskExecutors,
+            ExtractionCoordinator extractionCoordinator, MapReducePlanExtractor mapReducePlanExtractor,
+            FanOutPlanExtractor fanOutPlanExtractor, AiMetrics aiMetrics,
+            TokenBudget tokenBudget, PromptPrefixTracker promptPrefixTracker,
+            ProjectTokenUsageRepository tokenUsageRepository,
+            TransactionTemplate transactionTemplate) {
+        this.assistantClient = assistantClient;
         this.projectRepository = projectRepository;
         this.conversationRepository = conversationRepository;
         this.messageRepository = messageRepository;
+        this.epicRepository = epicRepository;
         this.projectMapper = projectMapper;
+        this.epicMapper = epicMapper;
         this.objectMapper = objectMapper;
-        this.resourceLoader = resourceLoader;
+        this.promptTemplates = promptTemplates;
+        this.projectContextCache = projectContextCache;
+        this.contextWindowManager = contextWindowManager;
+        this.tokenEstimator = tokenEstimator;
+        this.conversationSummarizer = conversationSummarizer;
+        this.planApplier = planApplier;
+        this.taskExecutors = taskExecutors;
+        this.extractionCoordinator = extractionCoordinator;
+        this.mapReducePlanExtractor = mapReducePlanExtractor;
+        this.fanOutPlanExtractor = fanOutPlanExtractor;
+        this.aiMetrics = aiMetrics;
+        this.tokenBudget = tokenBudget;
+        this.promptPrefixTracker = promptPrefixTracker;
+        this.tokenUsageRepository = tokenUsageRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    /**
+     * Runs the chat turn as two short transactions around a non-transactional AI call, so a
+     * pooled database connection is never held while waiting on the model. Each phase is timed
+     * in {@code planai.ai.phase}. The user and assistant messages are saved together once the
+     * model has answered; if the call fails, nothing of the turn is kept.
+     */
     @Override
-    @Transactional
     public ChatResponse chat(Long projectId, ChatRequest request) {
-        ProjectEntity project = projectRepository.findByIdWithHierarchy(projectId)
-                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
-        ConversationEntity conversation = resolveConversation(project, request.getConversationId());
-        List<MessageEntity> contextMessages = getRecentMessages(conversation.getId());
-
-        MessageEntity userMessage = saveMessage(conversation, MessageRoleEnum.USER, request.getMessage());
-
-        String systemPrompt = buildSystemPrompt(project);
-        List<Message> promptMessages = buildPromptMessages(systemPrompt, contextMessages, request.getMessage());
-        String assistantResponse = callAssistant(promptMessages);
-
-        saveMessage(conversation, MessageRoleEnum.ASSISTANT, assistantResponse);
+        PreparedChat preparedChat = transactionTemplate.execute(status ->
+                prepareChat(projectId, request, CHAT_OPERATION));
+        TokenUsageCollector usage = new TokenUsageCollector();
+        String assistantResponse;
+        try {
+            assistantResponse = aiMetrics.timePhase(CHAT_OPERATION, "generation", () -> assistantClient.call(
+                    AiCallContext.of(AiEndpointEnum.CHAT, projectId).withUsage(usage),
+                    preparedChat.promptMessages()));
+            aiMetrics.timePhase(CHAT_OPERATION, "persist-response", () -> transactionTemplate.execute(status ->
+                    saveTurn(preparedChat, assistantResponse, usage.total())));
+        } catch (RuntimeException exception) {
+            discardTurn(preparedChat);
+            throw exception;
+        }
+        conversationSummarizer.requestUpdate(preparedChat.conversation().getId());
 
         return ChatResponse.builder()
-                .conversationId(conversation.getId())
-                .userMessage(userMessage.getContent())
+                .conversationId(preparedChat.conversation().getId())
+                .userMessage(preparedChat.userMessage())
                 .assistantMessage(assistantResponse)
                 .build();
     }
 
     @Override
-    @Transactional
-    public ProjectDetailResponse extractPlan(Long projectId) {
-        ProjectEntity project = projectRepository.findByIdWithHierarchy(projectId)
+    public Flux<ChatStreamEvent> streamChat(Long projectId, ChatRequest request) {
+        // The prompt is built inside a short transaction so lazy plan associations can be read;
+        // no connection is held while tokens are streamed back to the client.
+        PreparedChat preparedChat = transactionTemplate.execute(status ->
+                prepareChat(projectId, request, CHAT_STREAM_OPERATION));
+        ConversationEntity conversation = preparedChat.conversation();
+        StringBuilder assistantResponse = new StringBuilder();
+        TokenUsageCollector usage = new TokenUsageCollector();
+        AtomicBoolean saved = new AtomicBoolean();
+
+        Flux<ChatStreamEvent> tokens = aiMetrics.timeStreamPhase(CHAT_STREAM_OPERATION, "generation",
+                        assistantClient.stream(AiCallContext.of(AiEndpointEnum.CHAT, projectId).withUsage(usage),
+                                preparedChat.promptMessages()))
+                .doOnNext(assistantResponse::append)
+                .map(token -> streamEvent(ChatStreamEventTypeEnum.TOKEN, conversation.getId(), token));
+
+        Mono<ChatStreamEvent> completion = Mono.fromCallable(() -> {
+            if (assistantResponse.toString().isBlank()) {
+                throw new AiGenerationException("AI response was empty.");
+            }
+            aiMetrics.timePhase(CHAT_STREAM_OPERATION, "persist-response", () -> transactionTemplate.execute(status ->
+                    saveTurn(preparedChat, assistantResponse.toString(), usage.total())));
+            saved.set(true);
+            conversationSummarizer.requestUpdate(conversation.getId());
+            return streamEvent(ChatStreamEventTypeEnum.DONE, conversation.getId(), assistantResponse.toString());
+        }).subscribeOn(taskExecutors.blockingScheduler());
+
+        return Flux.concat(
+                Flux.just(streamEvent(ChatStreamEventTypeEnum.CONVERSATION, conversation.getId(), null)),
+                tokens,
+                completion)
+                .onErrorResume(exception -> {
+                    log.error("Streaming chat failed for conversation {}", conversation.getId(), exception);
+                    return Flux.just(ChatStreamEvent.builder()
+                            .type(ChatStreamEventTypeEnum.ERROR)
+                            .conversationId(conversation.getId())
+                            .content(streamErrorMessage(exception, "Failed to generate AI response."))
+                            .retryAfterSeconds(retryAfterSeconds(exception))
+                            .build());
+                })
+                // Failed or cancelled before the turn was saved: drop what prepareChat created.
+                .doFinally(signal -> {
+                    if (!saved.get()) {
+                        taskExecutors.blockingScheduler().schedule(() -> discardTurn(preparedChat));
+                    }
+                });
+    }
+
+    /**
+     * Concurrent extractions of the same project are coalesced into a single run. Each run uses two short
+     * transactions around a non-transactional AI call, so no pooled database connection is held while the model
+     * generates the plan.
+     */
+    @Override
+    public ProjectDetailResponse extractPlan(Long projectId, ExtractionModeEnum mode,
+            ExtractionProgressListener listener) {
+        return extractionCoordinator.extract(projectId, mode,
+                effectiveMode -> runExtraction(projectId, effectiveMode, listener));
+    }
+
+    @Override
+    public TokenUsageResponse getTokenUsage(Long projectId, int days) {
+        ProjectEntity project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        LocalDate today = tokenBudget.today();
+        List<TokenUsageResponse.DailyUsage> usage = tokenUsageRepository
+                .findByProjectIdAndUsageDateGreaterThanEqualOrderByUsageDateAsc(projectId,
+                        today.minusDays(Math.max(0, days - 1)))
+                .stream()
+                .map(day -> TokenUsageResponse.DailyUsage.builder()
+                        .date(day.getUsageDate())
+                        .promptTokens(day.getPromptTokens())
+                        .completionTokens(day.getCompletionTokens())
+                        .calls(day.getCalls())
+                        .build())
+                .toList();
+        long usedToday = usage.stream()
+                .filter(day -> day.getDate().equals(today))
+                .mapToLong(day -> day.getPromptTokens() + day.getCompletionTokens())
+                .sum();
+        return TokenUsageResponse.builder()
+                .projectId(projectId)
+                .dailyBudgetTokens(tokenBudget.dailyProjectTokens())
+                .usedTodayTokens(usedToday)
+                .lastExtractionPromptTokens(project.getLastExtractionPromptTokens())
+                .lastExtractionCompletionTokens(project.getLastExtractionCompletionTokens())
+                .days(usage)
+                .build();
+    }
 
-        List<ConversationEntity> conversations = conversationRepository.findByProjectIdOrderByCreatedAtDesc(projectId);
-        if (conversations.isEmpty()) {
-            throw new AiGenerationException("No conversations available to extract a plan.");
+    /**
+     * Streams the completion through an incremental JSON parser and merges each epic in its own short
+     * transaction as soon as it is complete, so generation, parsing and database writes overlap. Epics that are
+     * not part of the new plan are removed once the whole plan has arrived, so the stream holds the project's
+     * extraction slot until it terminates: no other extraction can commit epics it would remove.
+     */
+    @Override
+    public Flux<ExtractionStreamEvent> streamExtractPlan(Long projectId) {
+        ExtractionCoordinator.Slot slot = extractionCoordinator.acquire(projectId);
+        PreparedExtraction preparedExtraction;
+        try {
+            // The streamed plan must come from one completion, so large histories are not split here.
+            preparedExtraction = aiMetrics.timePhase(EXTRACTION_STREAM_OPERATION, "prepare", () ->
+                    transactionTemplate.execute(status ->
+                            prepareExtraction(projectId, ExtractionModeEnum.FULL, false)));
+        } catch (RuntimeException exception) {
+            slot.fail(exception);
+            throw exception;
+        }
+        if (preparedExtraction.unchangedPlan() != null) {
+            slot.complete(preparedExtraction.unchangedPlan());
+            return Flux.just(ExtractionStreamEvent.builder()
+                    .type(ExtractionStreamEventTypeEnum.DONE)
+                    .project(preparedExtraction.unchangedPlan())
+                    .build());
         }
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        Set<Long> mergedEpicIds = ConcurrentHashMap.newKeySet();
+        AtomicInteger epicIndex = new AtomicInteger();
+        TokenUsageCollector usage = new TokenUsageCollector();
+
+        // Generation, parsing and merging overlap, so they are timed together.
+        Flux<ExtractionStreamEvent> epics = aiMetrics.timeStreamPhase(EXTRACTION_STREAM_OPERATION, "generation",
+                assistantClient
+                        .stream(AiCallContext.of(AiEndpointEnum.EXTRACT_PLAN, projectId).withUsage(usage),
+                                List.of(new SystemMessage(preparedExtraction.promptText())))
+                        .publishOn(taskExecutors.blockingScheduler())
+                        .concatMapIterable(parser::feed)
+                        .concatWith(Flux.defer(() -> Flux.fromIterable(parser.finish())))
+                        .map(epicNode -> transactionTemplate.execute(status ->
+                                persistEpic(projectId, epicNode, epicIndex.getAndIncrement(), mergedEpicIds))));
+
+        Mono<ExtractionStreamEvent> completion = Mono.fromCallable(() -> aiMetrics.timePhase(
+                        EXTRACTION_STREAM_OPERATION, "apply", () -> transactionTemplate.execute(status ->
+                                completeStreamedExtraction(projectId, mergedEpicIds,
+                                        preparedExtraction.upToMessageId(), usage.total()))))
+                .doOnNext(event -> slot.complete(event.getProject()))
+                .subscribeOn(taskExecutors.blockingScheduler());
+
+        return Flux.concat(epics, completion)
+                .doOnError(slot::fail)
+                // No-op once completed or failed; releases the slot when the client disconnects.
+                .doFinally(signal -> slot.fail(new AiGenerationException("Streamed plan extraction was cancelled.")))
+                .onErrorResume(exception -> {
+                    log.error("Streaming plan extraction failed for project {}", projectId, exception);
+                    return Flux.just(ExtractionStreamEvent.builder()
+                            .type(ExtractionStreamEventTypeEnum.ERROR)
+                            .content(streamErrorMessage(exception, "Failed to extract plan."))
+                            .retryAfterSeconds(retryAfterSeconds(exception))
+                            .build());
+                });
+    }
 
-        List<ConversationEntity> orderedConversations = new ArrayList<>(conversations);
-        Collections.reverse(orderedConversations);
-        String conversationHistory = buildConversationHistory(orderedConversations);
-        if (conversationHistory.isBlank()) {
-            throw new AiGenerationException("No messages available to extract a plan.");
+    private ProjectDetailResponse runExtraction(Long projectId, ExtractionModeEnum mode,
+            ExtractionProgressListener listener) {
+        String operation = "extraction-" + mode.name().toLowerCase().replace('_', '-');
+        PreparedExtraction preparedExtraction = runPhase(operation, ExtractionPhaseEnum.PREPARE, listener, () ->
+                transactionTemplate.execute(status -> prepareExtraction(projectId, mode, true)));
+        if (preparedExtraction.unchangedPlan() != null) {
+            return preparedExtraction.unchangedPlan();
         }
 
-        String fullContext = buildProjectContext(project) + "\n\n" + conversationHistory;
-        String promptTemplate = loadPrompt(STRUCTURE_PROMPT_PATH);
-        String promptText = promptTemplate.replace("{{conversation_history}}", fullContext);
+        // Collects the usage of every call of the extraction, e.g. all map-reduce calls.
+        AiCallContext context = AiCallContext.of(AiEndpointEnum.EXTRACT_PLAN, projectId)
+                .withUsage(new TokenUsageCollector());
+        String aiResponse = runPhase(operation, ExtractionPhaseEnum.GENERATION, listener, () ->
+                generatePlan(context, preparedExtraction));
+        JsonNode rootNode = runPhase(operation, ExtractionPhaseEnum.PARSE, listener, () -> parseJson(aiResponse));
+        return runPhase(operation, ExtractionPhaseEnum.APPLY, listener, () -> transactionTemplate.execute(status ->
+                applyExtraction(projectId, preparedExtraction, rootNode, context.usage().total())));
+    }
 
-        String aiResponse = callAssistant(List.of(new SystemMessage(promptText)));
-        JsonNode rootNode = parseJson(aiResponse);
-        applyPlan(project, rootNode);
+    private String generatePlan(AiCallContext context, PreparedExtraction preparedExtraction) {
+        if (preparedExtraction.historyChunks() != null) {
+            return mapReducePlanExtractor.extract(context, preparedExtraction.projectContext(),
+                    preparedExtraction.historyChunks());
+        }
+        if (preparedExtraction.conversationContext() != null) {
+            return fanOutPlanExtractor.extract(context, preparedExtraction.conversationContext());
+        }
+        return assistantClient.call(context, List.of(new SystemMessage(preparedExtraction.promptText())));
+    }
 
-        ProjectEntity savedProject = projectRepository.save(project);
-        return projectMapper.toDetailResponse(savedProject);
+    /**
+     * Saves the user message of a chat turn together with the assistant's answer.
+     */
+    private MessageEntity saveTurn(PreparedChat preparedChat, String assistantResponse, TokenUsage usage) {
+        saveMessage(preparedChat.conversation(), MessageRoleEnum.USER, preparedChat.userMessage());
+        return saveMessage(preparedChat.conversation(), MessageRoleEnum.ASSISTANT, assistantResponse, usage);
+    }
+
+    /**
+     * Undoes a chat turn that failed before it was saved. Only a conversation created for the turn has to go; the
+     * client never learned its ID. Cleanup failures are logged so they do not hide the original error.
+     */
+    private void discardTurn(PreparedChat preparedChat) {
+        if (!preparedChat.newConversation()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    conversationRepository.deleteById(preparedChat.conversation().getId()));
+        } catch (DataAccessException exception) {
+            log.warn("Failed to delete conversation {} of a failed chat turn: {}",
+                    preparedChat.conversation().getId(), exception.getMessage());
+        }
     }
 
     private ConversationEntity resolveConversation(ProjectEntity project, Long conversationId) {
@@ -140,113 +412,107 @@ public class AiServiceImpl implements AiService {
         return conversation;
     }
 
-    private List<MessageEntity> getRecentMessages(Long conversationId) {
-        List<MessageEntity> recentMessages =
-                messageRepository.findTop10ByConversationIdOrderByCreatedAtDesc(conversationId);
-        Collections.reverse(recentMessages);
-        return recentMessages;
+    private PreparedChat prepareChat(Long projectId, ChatRequest request, String operation) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project", projectId);
+        }
+        // The plan hierarchy is only loaded when the cached project context is stale.
+        ProjectEntity project = projectRepository.getReferenceById(projectId);
+        ConversationEntity conversation = resolveConversation(project, request.getConversationId());
+
+        String instructions = promptTemplates.render(PLANNING_PROMPT, Map.of());
+        String planSnapshot = aiMetrics.timePhase(operation, "context", () -> buildPlanSnapshot(projectId));
+        String summary = conversation.getSummary();
+        int reservedTokens = tokenEstimator.estimateMessage(instructions)
+                + tokenEstimator.estimateMessage(planSnapshot)
+                + tokenEstimator.estimateMessage(summary)
+                + tokenEstimator.estimateMessage(request.getMessage());
+        // Messages up to the summary checkpoint are represented by the summary, not sent raw.
+        List<MessageEntity> contextMessages = aiMetrics.timePhase(operation, "history", () ->
+                contextWindowManager.selectHistory(conversation.getId(), checkpointOf(conversation),
+                        tokenBudget.modelFor(projectId), reservedTokens));
+
+        // The user message is only saved with the answer, so a failed call leaves no unanswered message behind.
+        List<PromptSegment> segments =
+                buildPromptSegments(instructions, planSnapshot, summary, contextMessages, request.getMessage());
+        promptPrefixTracker.observe(conversation.getId(), segments);
+        return new PreparedChat(conversation, request.getConversationId() == null, request.getMessage(),
+                PromptSegment.messagesOf(segments));
     }
 
-    private MessageEntity saveMessage(ConversationEntity conversation, MessageRoleEnum role, String content) {
-        MessageEntity message = MessageEntity.builder()
-                .conversation(conversation)
-                .role(role)
+    private Long checkpointOf(ConversationEntity conversation) {
+        return conversation.getSummarizedUpToMessageId() == null ? 0L : conversation.getSummarizedUpToMessageId();
+    }
+
+    private ChatStreamEvent streamEvent(ChatStreamEventTypeEnum type, Long conversationId, String content) {
+        return ChatStreamEvent.builder()
+                .type(type)
+                .conversationId(conversationId)
                 .content(content)
                 .build();
-        return messageRepository.save(message);
     }
 
-    private String buildSystemPrompt(ProjectEntity project) {
-        String promptTemplate = loadPrompt(PLANNING_PROMPT_PATH);
-        String context = buildProjectContext(project);
-        return promptTemplate + "\n\n# Current Project Context\n" + context;
+    /**
+     * Returns the message of an API error, such as rate limiting, an exhausted budget or a provider outage, as
+     * the blocking endpoints would return it; other errors get the generic fallback.
+     */
+    private static String streamErrorMessage(Throwable exception, String fallback) {
+        return exception instanceof ApiException ? exception.getMessage() : fallback;
     }
 
-    private String buildProjectContext(ProjectEntity project) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("## Project\n");
-        builder.append("- Name: ").append(project.getName()).append("\n");
-        if (project.getDescription() != null && !project.getDescription().isBlank()) {
-            builder.append("- Description: ").append(project.getDescription()).append("\n");
-        }
-
-        List<EpicEntity> epics = project.getEpics() == null ? new ArrayList<>() : new ArrayList<>(project.getEpics());
-        epics.sort(Comparator.comparing(EpicEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
-
-        builder.append("\n## Epics\n");
-        if (epics.isEmpty()) {
-            builder.append("- No epics defined yet.\n");
-            return builder.toString();
-        }
-
-        for (EpicEntity epic : epics) {
-            builder.append("- Epic: ").append(epic.getTitle());
-            builder.append(" (Priority: ").append(epic.getPriority()).append(", Status: ")
-                    .append(epic.getStatus()).append(")\n");
-            if (epic.getDescription() != null && !epic.getDescription().isBlank()) {
-                builder.append("  - Description: ").append(epic.getDescription()).append("\n");
-            }
+    private static Long retryAfterSeconds(Throwable exception) {
+        return exception instanceof RetryableApiException retryableException
+                ? retryableException.getRetryAfterSeconds()
+                : null;
+    }
 
-            List<UserStoryEntity> stories = epic.getStories() == null
-                    ? new ArrayList<>()
-                    : new ArrayList<>(epic.getStories());
-            stories.sort(Comparator.comparing(UserStoryEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
-            if (stories.isEmpty()) {
-                builder.append("  - No user stories defined yet.\n");
-                continue;
-            }
+    private MessageEntity saveMessage(ConversationEntity conversation, MessageRoleEnum role, String content) {
+        return saveMessage(conversation, role, content, null);
+    }
 
-            for (UserStoryEntity story : stories) {
-                builder.append("  - Story: ").append(story.getTitle());
-                builder.append(" (Priority: ").append(story.getPriority()).append(", Status: ")
-                        .append(story.getStatus()).append(")\n");
-                if (story.getAsA() != null && !story.getAsA().isBlank()) {
-                    builder.append("    - As a: ").append(story.getAsA()).append("\n");
-                }
-                if (story.getIWant() != null && !story.getIWant().isBlank()) {
-                    builder.append("    - I want: ").append(story.getIWant()).append("\n");
-                }
-                if (story.getSoThat() != null && !story.getSoThat().isBlank()) {
-                    builder.append("    - So that: ").append(story.getSoThat()).append("\n");
-                }
-
-                List<TaskEntity> tasks = story.getTasks() == null
-                        ? new ArrayList<>()
-                        : new ArrayList<>(story.getTasks());
-                tasks.sort(Comparator.comparing(TaskEntity::getOrderIndex, Comparator.nullsLast(Integer::compareTo)));
-                if (tasks.isEmpty()) {
-                    builder.append("    - No tasks defined yet.\n");
-                    continue;
-                }
-
-                for (TaskEntity task : tasks) {
-                    builder.append("    - Task: ").append(task.getTitle());
-                    builder.append(" (Status: ").append(task.getStatus());
-                    if (task.getEstimatedHours() != null) {
-                        builder.append(", Est: ").append(task.getEstimatedHours()).append("h");
-                    }
-                    builder.append(")\n");
-                    if (task.getDescription() != null && !task.getDescription().isBlank()) {
-                        builder.append("      - Description: ").append(task.getDescription()).append("\n");
-                    }
-                }
-            }
-        }
+    private MessageEntity saveMessage(ConversationEntity conversation, MessageRoleEnum role, String content,
+            TokenUsage usage) {
+        MessageEntity message = MessageEntity.builder()
+                .conversation(conversation)
+                .role(role)
+                .content(content)
+                .promptTokens(usage == null ? null : Math.toIntExact(usage.promptTokens()))
+                .completionTokens(usage == null ? null : Math.toIntExact(usage.completionTokens()))
+                .build();
+        return messageRepository.save(message);
+    }
 
-        return builder.toString();
+    private String buildPlanSnapshot(Long projectId) {
+        String context = projectContextCache.get(projectId, () -> projectRepository.findByIdWithHierarchy(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId)));
+        return "# Current Project Context\n" + context;
     }
 
-    private List<Message> buildPromptMessages(String systemPrompt, List<MessageEntity> history, String userMessage) {
-        List<Message> messages = new ArrayList<>();
-        messages.add(new SystemMessage(systemPrompt));
+    /**
+     * Orders the prompt from the most to the least stable segment, each starting a new message, so providers
+     * that cache prompt prefixes can reuse everything before the first segment that changed since the last turn:
+     * the static instructions always, the plan snapshot until the plan changes, the summary until it is updated,
+     * and the earlier turns until the history window slides. Nothing that varies per turn may go into an
+     * earlier segment.
+     */
+    private List<PromptSegment> buildPromptSegments(String instructions, String planSnapshot, String summary,
+            List<MessageEntity> history, String userMessage) {
+        List<Message> summaryMessages = summary == null || summary.isBlank()
+                ? List.of()
+                : List.of(new SystemMessage("# Summary of Earlier Conversation\n" + summary));
+        List<Message> historyMessages = new ArrayList<>();
         for (MessageEntity message : history) {
             Message chatMessage = toChatMessage(message);
             if (chatMessage != null) {
-                messages.add(chatMessage);
+                historyMessages.add(chatMessage);
             }
         }
-        messages.add(new UserMessage(userMessage));
-        return messages;
+        return List.of(
+                new PromptSegment(PromptSegmentEnum.INSTRUCTIONS, List.of(new SystemMessage(instructions))),
+                new PromptSegment(PromptSegmentEnum.PLAN, List.of(new SystemMessage(planSnapshot))),
+                new PromptSegment(PromptSegmentEnum.SUMMARY, summaryMessages),
+                new PromptSegment(PromptSegmentEnum.HISTORY, historyMessages),
+                new PromptSegment(PromptSegmentEnum.REQUEST, List.of(new UserMessage(userMessage))));
     }
 
     private Message toChatMessage(MessageEntity message) {
@@ -262,138 +528,233 @@ public class AiServiceImpl implements AiService {
         return null;
     }
 
-    private String callAssistant(List<Message> promptMessages) {
-        try {
-            String response = chatClient.prompt(new Prompt(promptMessages)).call().content();
-            if (response == null || response.isBlank()) {
-                throw new AiGenerationException("AI response was empty.");
-            }
-            return response;
-        } catch (Exception exception) {
-            if (exception instanceof AiGenerationException) {
-                throw exception;
+    private PreparedExtraction prepareFullExtraction(ProjectEntity project, List<ConversationEntity> conversations,
+            ExtractionModeEnum mode, Long upToMessageId, boolean allowMapReduce) {
+        String conversationHistory = buildConversationHistory(project.getId(), conversations, upToMessageId);
+        if (conversationHistory.isBlank()) {
+            throw new AiGenerationException("No messages available to extract a plan.");
+        }
+
+        String projectContext = projectContextCache.get(project.getId(), () -> project);
+        if (allowMapReduce && mapReducePlanExtractor.shouldSplit(projectContext, conversationHistory)) {
+            List<String> historyChunks = buildConversationHistoryChunks(project.getId(), conversations,
+                    upToMessageId, mapReducePlanExtractor.chunkTokens());
+            if (historyChunks.size() > 1) {
+                return new PreparedExtraction(mode, null, upToMessageId, null, projectContext, historyChunks,
+                        null);
             }
-            throw new AiGenerationException("Failed to generate AI response.", exception);
         }
+
+        String fullContext = projectContext + "\n\n" + conversationHistory;
+        if (mode == ExtractionModeEnum.FAN_OUT) {
+            return new PreparedExtraction(mode, null, upToMessageId, null, null, null, fullContext);
+        }
+        String promptText = promptTemplates.render(STRUCTURE_PROMPT, Map.of("conversation_history", fullContext));
+        return new PreparedExtraction(ExtractionModeEnum.FULL, promptText, upToMessageId, null, null, null, null);
     }
 
-    private String buildConversationHistory(List<ConversationEntity> conversations) {
-        StringBuilder builder = new StringBuilder();
-        for (ConversationEntity conversation : conversations) {
-            List<MessageEntity> messages = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversation.getId());
-            if (messages.isEmpty()) {
-                continue;
-            }
-            builder.append("Conversation ").append(conversation.getId()).append(":\n");
-            for (MessageEntity message : messages) {
-                builder.append(message.getRole()).append(": ").append(message.getContent()).append("\n");
+    private PreparedExtraction prepareExtraction(Long projectId, ExtractionModeEnum mode, boolean allowMapReduce) {
+        ProjectEntity project = projectRepository.findByIdWithHierarchy(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+
+        List<ConversationEntity> conversations =
+                conversationRepository.findByProjectIdOrderByCreatedAtAscIdAsc(projectId);
+        if (conversations.isEmpty()) {
+            throw new AiGenerationException("No conversations available to extract a plan.");
+        }
+
+        // Messages arriving while the AI is working are left for the next extraction.
+        Long upToMessageId = messageRepository.findMaxIdByProjectId(projectId);
+        if (upToMessageId == null) {
+            throw new AiGenerationException("No messages available to extract a plan.");
+        }
+
+        Long watermark = project.getExtractedUpToMessageId();
+        if (mode != ExtractionModeEnum.INCREMENTAL && upToMessageId.equals(watermark)
+                && Objects.equals(project.getExtractedPlanVersion(), planVersionOf(project))) {
+            // Neither the conversations nor the plan changed since the last extraction.
+            return new PreparedExtraction(mode, null, upToMessageId, projectMapper.toDetailResponse(project),
+                    null, null, null);
+        }
+        if (mode == ExtractionModeEnum.INCREMENTAL && watermark != null) {
+            if (upToMessageId <= watermark) {
+                return new PreparedExtraction(mode, null, upToMessageId, projectMapper.toDetailResponse(project),
+                        null, null, null);
             }
-            builder.append("\n");
+            String newMessages = buildNewMessages(projectId, conversations, watermark, upToMessageId);
+            String promptText = promptTemplates.render(INCREMENTAL_STRUCTURE_PROMPT, Map.of(
+                    "current_plan", planApplier.snapshot(project),
+                    "new_messages", newMessages));
+            return new PreparedExtraction(mode, promptText, upToMessageId, null, null, null, null);
         }
-        return builder.toString().trim();
+        ExtractionModeEnum fullMode = mode == ExtractionModeEnum.FAN_OUT ? mode : ExtractionModeEnum.FULL;
+        return prepareFullExtraction(project, conversations, fullMode, upToMessageId, allowMapReduce);
     }
 
-    private JsonNode parseJson(String aiResponse) {
-        String jsonPayload = extractJson(aiResponse);
-        try {
-            ObjectMapper mapper = objectMapper.copy();
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return mapper.readTree(jsonPayload);
-        } catch (IOException exception) {
-            throw new AiGenerationException("Failed to parse AI response JSON.", exception);
+    private ProjectDetailResponse applyExtraction(Long projectId, PreparedExtraction preparedExtraction,
+            JsonNode rootNode, TokenUsage usage) {
+        // The plan is reloaded because it may have been edited while the AI was generating.
+        ProjectEntity project = projectRepository.findByIdWithHierarchy(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        if (preparedExtraction.mode() == ExtractionModeEnum.INCREMENTAL) {
+            planApplier.applyChanges(project, rootNode);
+        } else {
+            planApplier.merge(project, rootNode);
         }
+        advanceWatermark(project, preparedExtraction.upToMessageId());
+        recordExtractionUsage(project, usage);
+        projectContextCache.invalidate(projectId);
+        project.setExtractedPlanVersion(projectContextCache.currentVersion(projectId));
+
+        ProjectEntity savedProject = projectRepository.save(project);
+        return projectMapper.toDetailResponse(savedProject);
     }
 
-    private String extractJson(String response) {
-        int startIndex = response.indexOf('{');
-        int endIndex = response.lastIndexOf('}');
-        if (startIndex == -1 || endIndex == -1 || endIndex < startIndex) {
-            throw new AiGenerationException("AI response did not contain valid JSON.");
-        }
-        return response.substring(startIndex, endIndex + 1).trim();
+    private void recordExtractionUsage(ProjectEntity project, TokenUsage usage) {
+        project.setLastExtractionPromptTokens(usage.promptTokens());
+        project.setLastExtractionCompletionTokens(usage.completionTokens());
     }
 
-    private void applyPlan(ProjectEntity project, JsonNode rootNode) {
-        project.getEpics().clear();
+    private static Long planVersionOf(ProjectEntity project) {
+        return project.getPlanVersion() == null ? 0L : project.getPlanVersion();
+    }
 
-        JsonNode epicsNode = rootNode.path("epics");
-        if (!epicsNode.isArray()) {
-            throw new AiGenerationException("AI response did not include epics array.");
+    private void advanceWatermark(ProjectEntity project, Long upToMessageId) {
+        // An overlapping extraction that read more messages may already have finished.
+        Long watermark = project.getExtractedUpToMessageId();
+        if (watermark == null || upToMessageId > watermark) {
+            project.setExtractedUpToMessageId(upToMessageId);
         }
+        project.setLastExtractedAt(OffsetDateTime.now());
+    }
 
-        int epicIndex = 0;
-        for (JsonNode epicNode : epicsNode) {
-            EpicEntity epic = new EpicEntity();
-            epic.setTitle(defaultString(epicNode.path("title").asText(null), "Untitled Epic"));
-            epic.setDescription(epicNode.path("description").asText(null));
-            epic.setPriority(resolvePriority(epicNode.path("priority").asText(null)));
-            epic.setStatus(StatusEnum.TODO);
-            epic.setOrderIndex(epicIndex++);
-            project.addEpic(epic);
-
-            JsonNode storiesNode = epicNode.path("userStories");
-            int storyIndex = 0;
-            if (storiesNode.isArray()) {
-                for (JsonNode storyNode : storiesNode) {
-                    UserStoryEntity story = new UserStoryEntity();
-                    story.setTitle(defaultString(storyNode.path("title").asText(null), "Untitled Story"));
-                    story.setAsA(storyNode.path("asA").asText(null));
-                    story.setIWant(storyNode.path("iWant").asText(null));
-                    story.setSoThat(storyNode.path("soThat").asText(null));
-                    story.setPriority(resolvePriority(storyNode.path("priority").asText(null)));
-                    story.setStatus(StatusEnum.TODO);
-                    story.setOrderIndex(storyIndex++);
-                    epic.addStory(story);
-
-                    JsonNode tasksNode = storyNode.path("tasks");
-                    int taskIndex = 0;
-                    if (tasksNode.isArray()) {
-                        for (JsonNode taskNode : tasksNode) {
-                            TaskEntity task = new TaskEntity();
-                            task.setTitle(defaultString(taskNode.path("title").asText(null), "Untitled Task"));
-                            task.setDescription(taskNode.path("description").asText(null));
-                            task.setEstimatedHours(resolveEstimatedHours(taskNode.path("estimatedHours").asInt()));
-                            task.setStatus(StatusEnum.TODO);
-                            task.setOrderIndex(taskIndex++);
-                            story.addTask(task);
-                        }
-                    }
-                }
-            }
+    /**
+     * Runs an extraction phase, recording it in the phase metrics and reporting it to the listener once it
+     * completes.
+     */
+    private <T> T runPhase(String operation, ExtractionPhaseEnum phase, ExtractionProgressListener listener,
+            Supplier<T> work) {
+        long phaseStart = System.nanoTime();
+        String phaseName = phase.name().toLowerCase();
+        try {
+            T result = work.get();
+            Duration duration = Duration.ofNanos(System.nanoTime() - phaseStart);
+            aiMetrics.recordPhase(operation, phaseName, AiMetrics.SUCCESS, duration);
+            listener.phaseCompleted(phase, duration);
+            return result;
+        } catch (RuntimeException exception) {
+            aiMetrics.recordPhase(operation, phaseName, AiMetrics.outcome(exception),
+                    Duration.ofNanos(System.nanoTime() - phaseStart));
+            throw exception;
         }
     }
 
-    private PriorityEnum resolvePriority(String value) {
-        if (value == null || value.isBlank()) {
-            return PriorityEnum.MEDIUM;
+    private ExtractionStreamEvent persistEpic(Long projectId, JsonNode epicNode, int index, Set<Long> mergedEpicIds) {
+        // Match on titles alone and load only the matched epic's subtree, not the whole plan, for every epic.
+        Long matchedId = planApplier.matchEpic(epicRepository.findTitlesByProjectId(projectId), epicNode,
+                mergedEpicIds);
+        EpicEntity match = matchedId == null ? null : epicRepository.findByIdWithStories(matchedId)
+                .orElseThrow(() -> new ResourceNotFoundException("Epic", matchedId));
+        EpicEntity epic = planApplier.mergeEpic(match, epicNode, index);
+        if (match == null) {
+            epic.setProject(projectRepository.getReferenceById(projectId));
+            epicRepository.save(epic);
         }
-        try {
-            return PriorityEnum.valueOf(value.toUpperCase());
-        } catch (IllegalArgumentException exception) {
-            return PriorityEnum.MEDIUM;
+        // Flush so a new epic has its ID before it is reported and claimed.
+        epicRepository.flush();
+        mergedEpicIds.add(epic.getId());
+        projectContextCache.invalidate(projectId);
+
+        return ExtractionStreamEvent.builder()
+                .type(ExtractionStreamEventTypeEnum.EPIC)
+                .epicIndex(index)
+                .epic(epicMapper.toResponse(epic))
+                .build();
+    }
+
+    private ExtractionStreamEvent completeStreamedExtraction(Long projectId, Set<Long> mergedEpicIds,
+            Long upToMessageId, TokenUsage usage) {
+        ProjectEntity project = projectRepository.findByIdWithHierarchy(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
+        planApplier.removeEpicsExcept(project, mergedEpicIds);
+        advanceWatermark(project, upToMessageId);
+        recordExtractionUsage(project, usage);
+        projectContextCache.invalidate(projectId);
+        project.setExtractedPlanVersion(projectContextCache.currentVersion(projectId));
+
+        ProjectEntity savedProject = projectRepository.save(project);
+        return ExtractionStreamEvent.builder()
+                .type(ExtractionStreamEventTypeEnum.DONE)
+                .project(projectMapper.toDetailResponse(savedProject))
+                .build();
+    }
+
+    private String buildConversationHistory(Long projectId, List<ConversationEntity> conversations,
+            Long upToMessageId) {
+        // One streamed query for all conversations instead of one query per conversation.
+        ConversationHistoryWriter writer = new ConversationHistoryWriter(conversations);
+        try (Stream<MessageRepository.HistoryView> rows =
+                messageRepository.streamHistoryByProjectId(projectId, upToMessageId)) {
+            rows.forEach(writer::append);
         }
+        return writer.finish();
     }
 
-    private Integer resolveEstimatedHours(int value) {
-        if (value <= 0) {
-            return 4;
+    private List<String> buildConversationHistoryChunks(Long projectId, List<ConversationEntity> conversations,
+            Long upToMessageId, int maxChunkTokens) {
+        ConversationHistoryWriter writer = new ConversationHistoryWriter(conversations, tokenEstimator, maxChunkTokens);
+        try (Stream<MessageRepository.HistoryView> rows =
+                messageRepository.streamHistoryByProjectId(projectId, upToMessageId)) {
+            rows.forEach(writer::append);
         }
-        return value;
+        return writer.finishChunks();
     }
 
-    private String defaultString(String value, String fallback) {
-        if (value == null || value.isBlank()) {
-            return fallback;
+    private String buildNewMessages(Long projectId, List<ConversationEntity> conversations, Long afterMessageId,
+            Long upToMessageId) {
+        ConversationHistoryWriter writer = new ConversationHistoryWriter(conversations, false);
+        try (Stream<MessageRepository.HistoryView> rows =
+                messageRepository.streamMessagesBetween(projectId, afterMessageId, upToMessageId)) {
+            rows.forEach(writer::append);
         }
-        return value;
+        return writer.finish();
     }
 
-    private String loadPrompt(String path) {
-        Resource resource = resourceLoader.getResource(path);
-        try (var inputStream = resource.getInputStream()) {
-            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8).trim();
+    private JsonNode parseJson(String aiResponse) {
+        String jsonPayload = extractJson(aiResponse);
+        try {
+            ObjectMapper mapper = objectMapper.copy();
+            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            return mapper.readTree(jsonPayload);
         } catch (IOException exception) {
-            throw new AiGenerationException("Failed to load prompt template: " + path, exception);
+            throw new AiGenerationException("Failed to parse AI response JSON.", exception);
+        }
+    }
+
+    private String extractJson(String response) {
+        int startIndex = response.indexOf('{');
+        int endIndex = response.lastIndexOf('}');
+        if (startIndex == -1 || endIndex == -1 || endIndex < startIndex) {
+            throw new AiGenerationException("AI response did not contain valid JSON.");
         }
+        return response.substring(startIndex, endIndex + 1).trim();
+    }
+
+    /**
+     * Structure prompt and message watermark resolved before the AI is called. The unchanged plan is set instead
+     * of a prompt when an incremental extraction has no new messages to process; the project context and history
+     * chunks are set instead when the history is too large for one prompt; the conversation context is set instead
+     * for a fan-out extraction, which renders its own prompts.
+     */
+    private record PreparedExtraction(ExtractionModeEnum mode, String promptText, Long upToMessageId,
+            ProjectDetailResponse unchangedPlan, String projectContext, List<String> historyChunks,
+            String conversationContext) {
+    }
+
+    /**
+     * Conversation state and prompt resolved before the AI is called.
+     */
+    private record PreparedChat(ConversationEntity conversation, boolean newConversation, String userMessage,
+            List<Message> promptMessages) {
     }
 }
@@ -15,6 +15,7 @@ import com.planai.model.entity.ProjectEntity;
 import com.planai.repository.EpicRepository;
 import com.planai.repository.ProjectRepository;
 import com.planai.service.EpicService;
+import com.planai.service.ai.ProjectContextCache;
 import com.planai.exception.ResourceNotFoundException;
 import com.planai.model.enums.PriorityEnum;
 import com.planai.model.enums.StatusEnum;
@@ -32,11 +33,14 @@ public class EpicServiceImpl implements EpicService {
     private final EpicRepository epicRepository;
     private final ProjectRepository projectRepository;
     private final EpicMapper epicMapper;
+    private final ProjectContextCache projectContextCache;
 
-    public EpicServiceImpl(EpicRepository epicRepository, ProjectRepository projectRepository, EpicMapper epicMapper) {
+    public EpicServiceImpl(EpicRepository epicRepository, ProjectRepository projectRepository, EpicMapper epicMapper,
+            ProjectContextCache projectContextCache) {
         this.epicRepository = epicRepository;
         this.projectRepository = projectRepository;
         this.epicMapper = epicMapper;
+        this.projectContextCache = projectContextCache;
     }
 
     /**
@@ -82,6 +86,7 @@ public class EpicServiceImpl implements EpicService {
         }
         
         epicEntity = epicRepository.save(epicEntity);
+        projectContextCache.invalidate(projectId);
         return epicMapper.toResponse(epicEntity);
     }
 
@@ -103,6 +108,7 @@ public class EpicServiceImpl implements EpicService {
         epicMapper.updateEntityFromRequest(request, epicEntity);
 
         epicEntity = epicRepository.save(epicEntity);
+        projectContextCache.invalidate(epicEntity.getProject().getId());
         return epicMapper.toResponse(epicEntity);
     }
 
@@ -115,10 +121,12 @@ public class EpicServiceImpl implements EpicService {
     @Override
     @Transactional
     public void deleteEpic(Long epicId) {
-        if (!epicRepository.existsById(epicId)) {
-            throw new ResourceNotFoundException("Epic", epicId);
-        }
-        epicRepository.deleteById(epicId);
+        EpicEntity epicEntity = epicRepository
+                .findById(epicId)
+                .orElseThrow(() -> new ResourceNotFoundException("Epic", epicId));
+        Long projectId = epicEntity.getProject().getId();
+        epicRepository.delete(epicEntity);
+        projectContextCache.invalidate(projectId);
     }
 
     /**
@@ -164,5 +172,6 @@ public class EpicServiceImpl implements EpicService {
         }
 
         epicRepository.saveAll(epics);
+        projectContextCache.invalidate(projectId);
     }
 }
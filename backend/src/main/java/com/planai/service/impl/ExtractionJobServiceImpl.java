@@ -0,0 +1,166 @@
+package com.planai.service.impl;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.planai.exception.AiGenerationException;
+import com.planai.exception.ApiException;
+import com.planai.exception.ResourceNotFoundException;
+import com.planai.model.dto.response.ExtractionJobResponse;
+import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.enums.ExtractionJobStateEnum;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.model.enums.ExtractionPhaseEnum;
+import com.planai.repository.ProjectRepository;
+import com.planai.service.AiService;
+import com.planai.service.ExtractionJobService;
+import com.planai.service.ai.AiTaskExecutors;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Implementation of {@link ExtractionJobService} that runs extractions on a bounded executor and keeps job state in
+ * memory.
+ *
+ * The executor's thread count caps how many extractions call the AI at once, independently of the number of HTTP
+ * request threads; submissions beyond its queue are rejected. Finished jobs are kept for a configurable retention
+ * period and then dropped.
+ */
+@Service
+@Slf4j
+public class ExtractionJobServiceImpl implements ExtractionJobService {
+
+    private final AiService aiService;
+    private final ProjectRepository projectRepository;
+    private final ExecutorService executor;
+    private final Duration retention;
+    private final Map<String, ExtractionJob> jobs = new ConcurrentHashMap<>();
+
+    public ExtractionJobServiceImpl(AiService aiService, ProjectRepository projectRepository,
+            AiTaskExecutors taskExecutors,
+            @Value("${app.ai.extraction-jobs.executor-threads:2}") int executorThreads,
+            @Value("${app.ai.extraction-jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${app.ai.extraction-jobs.retention-minutes:60}") long retentionMinutes) {
+        this.aiService = aiService;
+        this.projectRepository = projectRepository;
+        this.executor = taskExecutors.bounded("extraction", executorThreads, queueCapacity);
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    @Override
+    public ExtractionJobResponse submit(Long projectId, ExtractionModeEnum mode) {
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project", projectId);
+        }
+        evictExpiredJobs();
+
+        ExtractionJob job = new ExtractionJob(UUID.randomUUID().toString(), projectId, mode);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException exception) {
+            jobs.remove(job.id);
+            throw new AiGenerationException("Too many plan extractions in progress; try again later.");
+        }
+        return job.toResponse();
+    }
+
+    @Override
+    public ExtractionJobResponse getJob(Long projectId, String jobId) {
+        ExtractionJob job = jobs.get(jobId);
+        if (job == null || !job.projectId.equals(projectId)) {
+            throw new ResourceNotFoundException(String.format("Extraction job not found with id: %s", jobId));
+        }
+        return job.toResponse();
+    }
+
+    private void run(ExtractionJob job) {
+        job.start();
+        try {
+            ProjectDetailResponse result = aiService.extractPlan(job.projectId, job.mode, job::recordPhase);
+            job.succeed(result);
+        } catch (ApiException exception) {
+            log.warn("Extraction job {} for project {} failed: {}", job.id, job.projectId, exception.getMessage());
+            job.fail(exception.getMessage());
+        } catch (Exception exception) {
+            log.error("Extraction job {} for project {} failed", job.id, job.projectId, exception);
+            job.fail("Failed to extract plan.");
+        }
+    }
+
+    private void evictExpiredJobs() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    /**
+     * Mutable state of a job. Written by its worker thread and read by request threads.
+     */
+    private static final class ExtractionJob {
+
+        private final String id;
+        private final Long projectId;
+        private final ExtractionModeEnum mode;
+        private final OffsetDateTime submittedAt = OffsetDateTime.now();
+        private final Map<ExtractionPhaseEnum, Long> phaseTimingsMs = new ConcurrentHashMap<>();
+        private volatile ExtractionJobStateEnum state = ExtractionJobStateEnum.QUEUED;
+        private volatile OffsetDateTime startedAt;
+        private volatile OffsetDateTime finishedAt;
+        private volatile ProjectDetailResponse result;
+        private volatile String error;
+
+        private ExtractionJob(String id, Long projectId, ExtractionModeEnum mode) {
+            this.id = id;
+            this.projectId = projectId;
+            this.mode = mode;
+        }
+
+        private void start() {
+            startedAt = OffsetDateTime.now();
+            state = ExtractionJobStateEnum.RUNNING;
+        }
+
+        private void recordPhase(ExtractionPhaseEnum phase, Duration duration) {
+            phaseTimingsMs.put(phase, duration.toMillis());
+        }
+
+        private void succeed(ProjectDetailResponse result) {
+            this.result = result;
+            finishedAt = OffsetDateTime.now();
+            state = ExtractionJobStateEnum.SUCCEEDED;
+        }
+
+        private void fail(String error) {
+            this.error = error;
+            finishedAt = OffsetDateTime.now();
+            state = ExtractionJobStateEnum.FAILED;
+        }
+
+        private ExtractionJobResponse toResponse() {
+            // Copied into an EnumMap so phases are listed in the order they run.
+            Map<ExtractionPhaseEnum, Long> timings = new EnumMap<>(ExtractionPhaseEnum.class);
+            timings.putAll(phaseTimingsMs);
+            return ExtractionJobResponse.builder()
+                    .id(id)
+                    .projectId(projectId)
+                    .mode(mode)
+                    .state(state)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .phaseTimingsMs(timings)
+                    .result(result)
+                    .error(error)
+                    .build();
+        }
+    }
+}
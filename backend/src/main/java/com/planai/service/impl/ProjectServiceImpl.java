@@ -13,6 +13,7 @@ import com.planai.model.dto.response.ProjectResponse;
 import com.planai.model.entity.ProjectEntity;
 import com.planai.repository.ProjectRepository;
 import com.planai.service.ProjectService;
+import com.planai.service.ai.ProjectContextCache;
 
 import com.planai.exception.ResourceNotFoundException;
 
@@ -29,10 +30,13 @@ public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectRepository projectRepository;
     private final ProjectMapper projectMapper;
+    private final ProjectContextCache projectContextCache;
 
-    public ProjectServiceImpl(ProjectRepository projectRepository, ProjectMapper projectMapper) {
+    public ProjectServiceImpl(ProjectRepository projectRepository, ProjectMapper projectMapper,
+            ProjectContextCache projectContextCache) {
         this.projectRepository = projectRepository;
         this.projectMapper = projectMapper;
+        this.projectContextCache = projectContextCache;
     }
 
     /**
@@ -91,6 +95,7 @@ public class ProjectServiceImpl implements ProjectService {
                 .orElseThrow(() -> new ResourceNotFoundException("Project", projectId));
         projectMapper.updateEntity(request, projectEntity);
         ProjectEntity updatedEntity = projectRepository.save(projectEntity);
+        projectContextCache.invalidate(projectId);
         return projectMapper.toResponse(updatedEntity);
     }
 
@@ -107,5 +112,6 @@ public class ProjectServiceImpl implements ProjectService {
             throw new ResourceNotFoundException("Project", projectId);
         }
         projectRepository.deleteById(projectId);
+        projectContextCache.invalidate(projectId);
     }
 }
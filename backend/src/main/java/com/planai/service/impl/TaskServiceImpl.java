@@ -16,6 +16,7 @@ import com.planai.model.enums.StatusEnum;
 import com.planai.repository.TaskRepository;
 import com.planai.repository.UserStoryRepository;
 import com.planai.service.TaskService;
+import com.planai.service.ai.ProjectContextCache;
 import com.planai.exception.ResourceNotFoundException;
 
 import lombok.extern.slf4j.Slf4j;
@@ -31,12 +32,14 @@ public class TaskServiceImpl implements TaskService {
     private final TaskRepository taskRepository;
     private final UserStoryRepository userStoryRepository;
     private final TaskMapper taskMapper;
+    private final ProjectContextCache projectContextCache;
 
     public TaskServiceImpl(TaskRepository taskRepository, UserStoryRepository userStoryRepository,
-            TaskMapper taskMapper) {
+            TaskMapper taskMapper, ProjectContextCache projectContextCache) {
         this.taskRepository = taskRepository;
         this.userStoryRepository = userStoryRepository;
         this.taskMapper = taskMapper;
+        this.projectContextCache = projectContextCache;
     }
 
     /**
@@ -75,6 +78,7 @@ public class TaskServiceImpl implements TaskService {
             taskEntity.setStatus(StatusEnum.TODO);
         }
         taskEntity = taskRepository.save(taskEntity);
+        projectContextCache.invalidate(projectIdOf(userStory));
         return taskMapper.toResponse(taskEntity);
     }
 
@@ -94,6 +98,7 @@ public class TaskServiceImpl implements TaskService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", taskId));
         taskMapper.updateEntityFromRequest(request, taskEntity);
         taskEntity = taskRepository.save(taskEntity);
+        projectContextCache.invalidate(projectIdOf(taskEntity.getUserStory()));
         return taskMapper.toResponse(taskEntity);
     }
 
@@ -109,7 +114,9 @@ public class TaskServiceImpl implements TaskService {
         TaskEntity taskEntity = taskRepository
                 .findById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", taskId));
+        Long projectId = projectIdOf(taskEntity.getUserStory());
         taskRepository.delete(taskEntity);
+        projectContextCache.invalidate(projectId);
     }
 
     /**
@@ -125,9 +132,9 @@ public class TaskServiceImpl implements TaskService {
     @Override
     @Transactional
     public void reorderTasks(Long storyId, List<Long> taskIds) {
-        if (!userStoryRepository.existsById(storyId)) {
-            throw new ResourceNotFoundException("UserStory", storyId);
-        }
+        UserStoryEntity userStory = userStoryRepository
+                .findById(storyId)
+                .orElseThrow(() -> new ResourceNotFoundException("UserStory", storyId));
 
         List<TaskEntity> tasks = taskRepository.findByUserStoryIdOrderByOrderIndexAsc(storyId);
 
@@ -155,5 +162,10 @@ public class TaskServiceImpl implements TaskService {
         }
 
         taskRepository.saveAll(tasks);
+        projectContextCache.invalidate(projectIdOf(userStory));
+    }
+
+    private Long projectIdOf(UserStoryEntity userStory) {
+        return userStory.getEpic().getProject().getId();
     }
 }
@@ -16,6 +16,7 @@ import com.planai.model.enums.StatusEnum;
 import com.planai.repository.EpicRepository;
 import com.planai.repository.UserStoryRepository;
 import com.planai.service.UserStoryService;
+import com.planai.service.ai.ProjectContextCache;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,12 +31,14 @@ public class UserStoryServiceImpl implements UserStoryService {
     private final UserStoryRepository userStoryRepository;
     private final EpicRepository epicRepository;
     private final UserStoryMapper userStoryMapper;
+    private final ProjectContextCache projectContextCache;
 
     public UserStoryServiceImpl(UserStoryRepository userStoryRepository, EpicRepository epicRepository,
-            UserStoryMapper userStoryMapper) {
+            UserStoryMapper userStoryMapper, ProjectContextCache projectContextCache) {
         this.userStoryRepository = userStoryRepository;
         this.epicRepository = epicRepository;
         this.userStoryMapper = userStoryMapper;
+        this.projectContextCache = projectContextCache;
     }
 
     /**
@@ -77,6 +80,7 @@ public class UserStoryServiceImpl implements UserStoryService {
         }
         
         UserStoryEntity savededEntity = userStoryRepository.save(storyEntity);
+        projectContextCache.invalidate(epicEntity.getProject().getId());
         return userStoryMapper.toResponse(savededEntity);
     }
 
@@ -95,6 +99,7 @@ public class UserStoryServiceImpl implements UserStoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("UserStory", storyId));
         userStoryMapper.updateEntityFromRequest(request, storyEntity);
         UserStoryEntity updatedEntity = userStoryRepository.save(storyEntity);
+        projectContextCache.invalidate(storyEntity.getEpic().getProject().getId());
         return userStoryMapper.toResponse(updatedEntity);
     }
 
@@ -106,9 +111,11 @@ public class UserStoryServiceImpl implements UserStoryService {
     @Override
     @Transactional
     public void deleteStory(Long storyId) {
-        if (!userStoryRepository.existsById(storyId)) {
-            throw new ResourceNotFoundException("UserStory", storyId);
-        }
-        userStoryRepository.deleteById(storyId);
+        UserStoryEntity storyEntity = userStoryRepository
+                .findById(storyId)
+                .orElseThrow(() -> new ResourceNotFoundException("UserStory", storyId));
+        Long projectId = storyEntity.getEpic().getProject().getId();
+        userStoryRepository.delete(storyEntity);
+        projectContextCache.invalidate(projectId);
     }
 }
@@ -0,0 +1,164 @@
+package com.planai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.planai.model.dto.request.CreateProjectRequest;
+import com.planai.service.ProjectService;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares how many chats can wait on a slow model at the same time with platform and with virtual request threads.
+ *
+ * Not picked up by the regular test run. Run it at a fixed heap, e.g.
+ * {@code mvn test -Dtest=ChatConcurrencyBenchmark -Dsurefire.failIfNoSpecifiedTests=false -DargLine=-Xmx512m},
+ * optionally with {@code -Dbenchmark.chats=2000}. Each mode boots the application, fires all chats over HTTP
+ * against a model that parks every call, and reports the plateau of concurrent in-flight chats, live platform
+ * threads and used heap.
+ */
+class ChatConcurrencyBenchmark {
+
+    private static final int CHATS = Integer.getInteger("benchmark.chats", 1000);
+    private static final Duration PLATEAU_WAIT = Duration.ofSeconds(15);
+
+    @Test
+    void virtualThreadsServeMoreConcurrentChatsThanThePlatformPool() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %12s %16s %12s%n", "mode", "in-flight", "platform threads", "heap MB");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12d %16d %12d%n", result.mode(), result.inFlight(), result.platformThreads(),
+                    result.heapUsedBytes() / (1024 * 1024));
+        }
+
+        assertThat(virtual.inFlight()).isGreaterThan(platform.inFlight());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        BlockingChatModel chatModel = new BlockingChatModel();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PlanAiApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false",
+                        "app.ai.summary.enabled=false",
+                        "app.ai.limits.max-concurrent=100000",
+                        "app.ai.limits.per-project-max-concurrent=100000",
+                        "app.ai.limits.requests-per-minute=0",
+                        "app.ai.limits.max-queued=100000")
+                .initializers(applicationContext -> ((GenericApplicationContext) applicationContext).registerBean(
+                        "benchmarkChatClient", ChatClient.class, () -> ChatClient.create(chatModel),
+                        definition -> definition.setPrimary(true)))
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            Long projectId = context.getBean(ProjectService.class)
+                    .createProject(CreateProjectRequest.builder().name("Benchmark").build())
+                    .getId();
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            URI chatUri = URI.create("http://localhost:" + port + "/api/v1/projects/" + projectId + "/chat");
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CHATS; i++) {
+                HttpRequest request = HttpRequest.newBuilder(chatUri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"Message " + i + "\"}"))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+
+            int inFlight = chatModel.awaitPlateau(PLATEAU_WAIT);
+            System.gc();
+            Result result = new Result(virtualThreads ? "virtual" : "platform", inFlight,
+                    ManagementFactory.getThreadMXBean().getThreadCount(),
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+
+            chatModel.release();
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+            return result;
+        } finally {
+            chatModel.release();
+        }
+    }
+
+    private record Result(String mode, int inFlight, int platformThreads, long heapUsedBytes) {
+    }
+
+    /**
+     * Chat model that parks every call until released, simulating a slow provider.
+     */
+    static class BlockingChatModel implements ChatModel {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            inFlight.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.MINUTES);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new ChatResponse(List.of(new Generation("Stubbed answer")));
+        }
+
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(call(prompt));
+        }
+
+        public ChatOptions getDefaultOptions() {
+            return OpenAiChatOptions.builder().build();
+        }
+
+        /**
+         * Waits until the number of parked calls stops growing for a second, or the timeout elapses.
+         */
+        int awaitPlateau(Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            int previous = -1;
+            while (System.nanoTime() < deadline) {
+                int current = inFlight.get();
+                if (current == previous && current > 0) {
+                    return current;
+                }
+                previous = current;
+                Thread.sleep(1000);
+            }
+            return inFlight.get();
+        }
+
+        void release() {
+            release.countDown();
+        }
+    }
+}
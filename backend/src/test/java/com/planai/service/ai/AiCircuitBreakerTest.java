@@ -0,0 +1,141 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.planai.exception.AiUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AiCircuitBreakerTest {
+
+    private static final int FAILURE_THRESHOLD = 2;
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCallsWhileOpen() {
+        AiCircuitBreaker breaker = breaker(60);
+
+        breaker.acquire().onFailure();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+        breaker.acquire().onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquire)
+                .isInstanceOfSatisfying(AiUnavailableException.class,
+                        exception -> assertThat(exception.getRetryAfterSeconds()).isBetween(1L, 60L));
+    }
+
+    @Test
+    void successAndIgnoredOutcomesDoNotAddUpFailures() {
+        AiCircuitBreaker breaker = breaker(60);
+
+        breaker.acquire().onFailure();
+        breaker.acquire().onSuccess();
+        breaker.acquire().onFailure();
+        breaker.acquire().onIgnored();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void countsEachAttemptOnlyOnce() {
+        AiCircuitBreaker breaker = breaker(60);
+        AiCircuitBreaker.Attempt attempt = breaker.acquire();
+
+        attempt.onFailure();
+        attempt.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenCircuitLetsOneTrialThroughAndClosesOnItsSuccess() {
+        AiCircuitBreaker breaker = openBreaker();
+
+        AiCircuitBreaker.Attempt trial = breaker.acquire();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(AiUnavailableException.class);
+        trial.onSuccess();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+        // Closing resets the failure count: one more failure stays below the threshold.
+        breaker.acquire().onFailure();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void failedTrialOpensTheCircuitAgain() {
+        AiCircuitBreaker breaker = openBreaker();
+
+        breaker.acquire().onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void ignoredTrialLetsTheNextTrialThrough() {
+        AiCircuitBreaker breaker = openBreaker();
+
+        breaker.acquire().onIgnored();
+        AiCircuitBreaker.Attempt nextTrial = breaker.acquire();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.HALF_OPEN);
+        nextTrial.onSuccess();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void outcomesOfCallsAdmittedBeforeTheCircuitOpenedAreIgnored() {
+        AiCircuitBreaker breaker = breaker(0);
+        AiCircuitBreaker.Attempt staleSuccess = breaker.acquire();
+        AiCircuitBreaker.Attempt staleFailure = breaker.acquire();
+        AiCircuitBreaker.Attempt staleIgnored = breaker.acquire();
+        breaker.acquire().onFailure();
+        breaker.acquire().onFailure();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+
+        AiCircuitBreaker.Attempt trial = breaker.acquire();
+        staleIgnored.onIgnored();
+        staleFailure.onFailure();
+        staleSuccess.onSuccess();
+
+        // Neither a second trial is admitted nor is the circuit closed while the provider may still be down.
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(breaker::acquire).isInstanceOf(AiUnavailableException.class);
+        trial.onFailure();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void outcomesOfCallsAdmittedBeforeAnEarlierOpeningAreIgnoredAfterClosing() {
+        AiCircuitBreaker breaker = breaker(0);
+        AiCircuitBreaker.Attempt stale = breaker.acquire();
+        breaker.acquire().onFailure();
+        breaker.acquire().onFailure();
+        breaker.acquire().onSuccess();
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+
+        breaker.acquire().onFailure();
+        stale.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Returns a breaker that has just opened and moves to half-open on the next call.
+     */
+    private static AiCircuitBreaker openBreaker() {
+        AiCircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            breaker.acquire().onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(AiCircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static AiCircuitBreaker breaker(long openSeconds) {
+        return new AiCircuitBreaker(new SimpleMeterRegistry(), FAILURE_THRESHOLD, openSeconds);
+    }
+}
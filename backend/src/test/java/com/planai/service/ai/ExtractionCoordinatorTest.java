@@ -0,0 +1,191 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.planai.exception.AiGenerationException;
+import com.planai.model.dto.response.ProjectDetailResponse;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.repository.MessageRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ExtractionCoordinatorTest {
+
+    private static final Long PROJECT_ID = 1L;
+
+    private final AtomicLong latestMessageId = new AtomicLong(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExtractionCoordinator coordinator = new ExtractionCoordinator(messageRepository(), meterRegistry,
+            10);
+    private final GatedExtraction extraction = new GatedExtraction();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        extraction.releaseAll();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callersWithoutNewMessagesJoinTheLeader() throws Exception {
+        Future<ProjectDetailResponse> leader = extract(ExtractionModeEnum.FULL);
+        extraction.awaitRuns(1);
+        Future<ProjectDetailResponse> joined = extract(ExtractionModeEnum.FULL);
+        awaitRole("joined", 1);
+
+        extraction.release(1);
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(joined.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(extraction.runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void followUpStartsOnlyAfterTheLeaderAndCallersArrivingDuringItJoin() throws Exception {
+        Future<ProjectDetailResponse> leader = extract(ExtractionModeEnum.INCREMENTAL);
+        extraction.awaitRuns(1);
+        latestMessageId.set(2);
+        Future<ProjectDetailResponse> followUp = extract(ExtractionModeEnum.INCREMENTAL);
+        awaitRole("follow-up", 1);
+        Future<ProjectDetailResponse> joinedFollowUp = extract(ExtractionModeEnum.FULL);
+        awaitRole("joined-follow-up", 1);
+
+        extraction.release(1);
+        extraction.awaitRuns(2);
+        // The follow-up now holds the project, so a caller arriving while it runs joins it instead of leading.
+        Future<ProjectDetailResponse> joined = extract(ExtractionModeEnum.INCREMENTAL);
+        awaitRole("joined", 1);
+        extraction.release(2);
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(followUp.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(joinedFollowUp.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(joined.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(extraction.runs.get()).isEqualTo(2);
+        assertThat(extraction.maxConcurrent.get()).isEqualTo(1);
+        // The follow-up runs in the strongest mode requested by its callers.
+        assertThat(extraction.modes).containsExactly(ExtractionModeEnum.INCREMENTAL, ExtractionModeEnum.FULL);
+    }
+
+    @Test
+    void interruptedFollowUpFailsItsCallersAndFreesTheProject() throws Exception {
+        Future<ProjectDetailResponse> leader = extract(ExtractionModeEnum.FULL);
+        extraction.awaitRuns(1);
+        latestMessageId.set(2);
+        AtomicReference<Thread> followUpThread = new AtomicReference<>();
+        Future<ProjectDetailResponse> followUp = executor.submit(() -> {
+            followUpThread.set(Thread.currentThread());
+            return coordinator.extract(PROJECT_ID, ExtractionModeEnum.FULL, extraction);
+        });
+        awaitRole("follow-up", 1);
+        Future<ProjectDetailResponse> joinedFollowUp = extract(ExtractionModeEnum.FULL);
+        awaitRole("joined-follow-up", 1);
+
+        followUpThread.get().interrupt();
+
+        assertThatThrownBy(() -> joinedFollowUp.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AiGenerationException.class);
+        assertThatThrownBy(() -> followUp.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AiGenerationException.class);
+        extraction.release(1);
+        assertThat(leader.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+
+        Future<ProjectDetailResponse> next = extract(ExtractionModeEnum.FULL);
+        extraction.awaitRuns(2);
+        extraction.release(2);
+        assertThat(next.get(5, TimeUnit.SECONDS).getId()).isEqualTo(2L);
+        assertThat(extraction.runs.get()).isEqualTo(2);
+    }
+
+    private Future<ProjectDetailResponse> extract(ExtractionModeEnum mode) {
+        return executor.submit(() -> coordinator.extract(PROJECT_ID, mode, extraction));
+    }
+
+    private void awaitRole(String role, double count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.counter("planai.extraction.requests", "role", role).count() < count) {
+            assertThat(System.nanoTime()).as("caller with role " + role).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private MessageRepository messageRepository() {
+        MessageRepository messageRepository = mock(MessageRepository.class);
+        when(messageRepository.findMaxIdByProjectId(PROJECT_ID)).thenAnswer(invocation -> latestMessageId.get());
+        return messageRepository;
+    }
+
+    /**
+     * Extraction that blocks every run until it is released, answering with the run's number as project ID.
+     */
+    private static final class GatedExtraction implements Function<ExtractionModeEnum, ProjectDetailResponse> {
+
+        private final AtomicInteger runs = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final List<ExtractionModeEnum> modes = new ArrayList<>();
+        private final List<CompletableFuture<Void>> gates = new ArrayList<>();
+        private final LinkedBlockingQueue<Integer> started = new LinkedBlockingQueue<>();
+
+        @Override
+        public ProjectDetailResponse apply(ExtractionModeEnum mode) {
+            int run;
+            CompletableFuture<Void> gate;
+            synchronized (this) {
+                run = runs.incrementAndGet();
+                modes.add(mode);
+                gate = gate(run);
+            }
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            started.add(run);
+            try {
+                gate.get(10, TimeUnit.SECONDS);
+                return ProjectDetailResponse.builder().id((long) run).build();
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+
+        void awaitRuns(int count) throws InterruptedException {
+            while (runs.get() < count) {
+                assertThat(started.poll(5, TimeUnit.SECONDS)).as("extraction run started").isNotNull();
+            }
+        }
+
+        synchronized void release(int run) {
+            gate(run).complete(null);
+        }
+
+        synchronized void releaseAll() {
+            gates.forEach(gate -> gate.complete(null));
+        }
+
+        private synchronized CompletableFuture<Void> gate(int run) {
+            while (gates.size() < run) {
+                gates.add(new CompletableFuture<>());
+            }
+            return gates.get(run - 1);
+        }
+    }
+}
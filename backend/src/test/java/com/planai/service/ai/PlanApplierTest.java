@@ -0,0 +1,242 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.exception.AiGenerationException;
+import com.planai.model.entity.EpicEntity;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.model.entity.TaskEntity;
+import com.planai.model.entity.UserStoryEntity;
+import com.planai.model.enums.PriorityEnum;
+import com.planai.model.enums.StatusEnum;
+import com.planai.repository.EpicRepository;
+
+class PlanApplierTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PlanApplier planApplier = new PlanApplier(objectMapper);
+
+    @Test
+    void mergeKeepsIdsWhenTitlesAreUnchanged() throws Exception {
+        ProjectEntity project = sampleProject();
+
+        planApplier.merge(project, json("""
+                {"epics": [
+                  {"title": "Checkout", "description": "Take payments", "priority": "HIGH", "userStories": [
+                    {"title": "Pay by card", "asA": "buyer", "tasks": [
+                      {"title": "Card form", "estimatedHours": 10},
+                      {"title": "Receipt email", "estimatedHours": 2}]}]},
+                  {"title": "Accounts", "userStories": [{"title": "Sign up", "tasks": []}]}]}
+                """));
+
+        assertThat(project.getEpics()).extracting(EpicEntity::getId).containsExactly(1L, 2L);
+        EpicEntity checkout = project.getEpics().get(0);
+        assertThat(checkout.getDescription()).isEqualTo("Take payments");
+        assertThat(checkout.getPriority()).isEqualTo(PriorityEnum.HIGH);
+        assertThat(checkout.getStories()).extracting(UserStoryEntity::getId).containsExactly(10L);
+        assertThat(checkout.getStories().get(0).getAsA()).isEqualTo("buyer");
+        assertThat(checkout.getStories().get(0).getTasks()).extracting(TaskEntity::getId).containsExactly(100L, 101L);
+        assertThat(project.getEpics().get(1).getStories()).extracting(UserStoryEntity::getId).containsExactly(20L);
+    }
+
+    @Test
+    void mergeKeepsManualStatusesAndEstimatesAndOnlyFillsMissingEstimates() throws Exception {
+        ProjectEntity project = sampleProject();
+
+        planApplier.merge(project, json("""
+                {"epics": [
+                  {"title": "Checkout", "userStories": [
+                    {"title": "Pay by card", "tasks": [
+                      {"title": "Card form", "estimatedHours": 3},
+                      {"title": "Receipt email", "estimatedHours": 5}]}]},
+                  {"title": "Accounts", "userStories": [{"title": "Sign up", "tasks": []}]}]}
+                """));
+
+        EpicEntity checkout = project.getEpics().get(0);
+        TaskEntity cardForm = checkout.getStories().get(0).getTasks().get(0);
+        TaskEntity receiptEmail = checkout.getStories().get(0).getTasks().get(1);
+        assertThat(checkout.getStatus()).isEqualTo(StatusEnum.IN_PROGRESS);
+        assertThat(cardForm.getStatus()).isEqualTo(StatusEnum.DONE);
+        assertThat(cardForm.getEstimatedHours()).isEqualTo(10);
+        assertThat(receiptEmail.getEstimatedHours()).isEqualTo(5);
+    }
+
+    @Test
+    void mergeMatchesRenamedItemsAndReplacesUnmatchedOnes() throws Exception {
+        ProjectEntity project = sampleProject();
+
+        planApplier.merge(project, json("""
+                {"epics": [
+                  {"title": "Checkout", "userStories": [
+                    {"title": "Pay by credit card", "tasks": [{"title": "Card form"}]}]},
+                  {"title": "Reporting", "userStories": [{"title": "Sales report", "tasks": []}]}]}
+                """));
+
+        assertThat(project.getEpics()).extracting(EpicEntity::getTitle).containsExactly("Checkout", "Reporting");
+        UserStoryEntity story = project.getEpics().get(0).getStories().get(0);
+        assertThat(story.getId()).isEqualTo(10L);
+        assertThat(story.getTitle()).isEqualTo("Pay by credit card");
+        assertThat(story.getTasks()).extracting(TaskEntity::getId).containsExactly(100L);
+
+        EpicEntity reporting = project.getEpics().get(1);
+        assertThat(reporting.getId()).isNull();
+        assertThat(reporting.getStatus()).isEqualTo(StatusEnum.TODO);
+        assertThat(reporting.getOrderIndex()).isEqualTo(1);
+        assertThat(reporting.getProject()).isSameAs(project);
+    }
+
+    @Test
+    void mergeRejectsPlanWithoutEpicsArray() {
+        ProjectEntity project = sampleProject();
+
+        assertThatThrownBy(() -> planApplier.merge(project, json("{\"stories\": []}")))
+                .isInstanceOf(AiGenerationException.class);
+        assertThat(project.getEpics()).hasSize(2);
+    }
+
+    @Test
+    void applyChangesUpdatesOnlyProvidedFieldsAndRemovesAndCreatesItems() throws Exception {
+        ProjectEntity project = sampleProject();
+
+        planApplier.applyChanges(project, json("""
+                {"epics": [
+                  {"id": 1, "userStories": [
+                    {"id": 10, "title": "Pay by card or wallet", "tasks": [
+                      {"id": 100, "estimatedHours": 6},
+                      {"id": 101, "removed": true},
+                      {"title": "Wallet button"}]}]},
+                  {"id": 2, "removed": true}]}
+                """));
+
+        assertThat(project.getEpics()).extracting(EpicEntity::getId).containsExactly(1L);
+        UserStoryEntity story = project.getEpics().get(0).getStories().get(0);
+        assertThat(story.getTitle()).isEqualTo("Pay by card or wallet");
+        assertThat(story.getAsA()).isEqualTo("customer");
+        assertThat(story.getTasks()).extracting(TaskEntity::getTitle).containsExactly("Card form", "Wallet button");
+        TaskEntity cardForm = story.getTasks().get(0);
+        assertThat(cardForm.getEstimatedHours()).isEqualTo(6);
+        assertThat(cardForm.getStatus()).isEqualTo(StatusEnum.DONE);
+        TaskEntity walletButton = story.getTasks().get(1);
+        assertThat(walletButton.getStatus()).isEqualTo(StatusEnum.TODO);
+        assertThat(walletButton.getOrderIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void applyChangesCreatesItemsWithUnknownIdsAndIgnoresRemovalOfUnknownIds() throws Exception {
+        ProjectEntity project = sampleProject();
+
+        planApplier.applyChanges(project, json("""
+                {"epics": [
+                  {"id": 999, "title": "Reporting", "userStories": []},
+                  {"id": 998, "removed": true}]}
+                """));
+
+        assertThat(project.getEpics()).extracting(EpicEntity::getTitle)
+                .containsExactly("Checkout", "Accounts", "Reporting");
+        EpicEntity reporting = project.getEpics().get(2);
+        assertThat(reporting.getId()).isNull();
+        assertThat(reporting.getOrderIndex()).isEqualTo(2);
+    }
+
+    @Test
+    void streamedEpicsAreMatchedOnlyAgainstUnclaimedEpics() throws Exception {
+        List<EpicRepository.TitleView> epics = List.of(titleView(1L, "Checkout"), titleView(2L, "Checkout"));
+        JsonNode epicNode = json("{\"title\": \"Checkout\"}");
+
+        assertThat(planApplier.matchEpic(epics, epicNode, Set.of())).isEqualTo(1L);
+        assertThat(planApplier.matchEpic(epics, epicNode, Set.of(1L))).isEqualTo(2L);
+        assertThat(planApplier.matchEpic(epics, epicNode, Set.of(1L, 2L))).isNull();
+    }
+
+    @Test
+    void streamedEpicWithoutMatchIsCreatedWithItsSubtree() throws Exception {
+        EpicEntity epic = planApplier.mergeEpic(null, json("""
+                {"title": "Reporting", "userStories": [{"title": "Sales report", "tasks": [{"title": "Query"}]}]}
+                """), 3);
+
+        assertThat(epic.getId()).isNull();
+        assertThat(epic.getOrderIndex()).isEqualTo(3);
+        assertThat(epic.getStories()).extracting(UserStoryEntity::getTitle).containsExactly("Sales report");
+        TaskEntity task = epic.getStories().get(0).getTasks().get(0);
+        assertThat(task.getEstimatedHours()).isEqualTo(4);
+        assertThat(task.getUserStory()).isSameAs(epic.getStories().get(0));
+    }
+
+    private JsonNode json(String content) throws Exception {
+        return objectMapper.readTree(content);
+    }
+
+    /**
+     * Two epics: "Checkout" (in progress) with a story and two tasks, one done with a manual estimate and one
+     * without estimate, and "Accounts" with one story.
+     */
+    private static ProjectEntity sampleProject() {
+        ProjectEntity project = ProjectEntity.builder().id(1L).name("Bakery").build();
+
+        EpicEntity checkout = epic(1L, "Checkout", 0);
+        checkout.setStatus(StatusEnum.IN_PROGRESS);
+        UserStoryEntity payByCard = story(10L, "Pay by card", 0);
+        payByCard.addTask(task(100L, "Card form", 0, StatusEnum.DONE, 10));
+        payByCard.addTask(task(101L, "Receipt email", 1, StatusEnum.TODO, null));
+        checkout.addStory(payByCard);
+        project.addEpic(checkout);
+
+        EpicEntity accounts = epic(2L, "Accounts", 1);
+        accounts.addStory(story(20L, "Sign up", 0));
+        project.addEpic(accounts);
+        return project;
+    }
+
+    private static EpicEntity epic(Long id, String title, int orderIndex) {
+        return EpicEntity.builder()
+                .id(id)
+                .title(title)
+                .priority(PriorityEnum.MEDIUM)
+                .status(StatusEnum.TODO)
+                .orderIndex(orderIndex)
+                .build();
+    }
+
+    private static UserStoryEntity story(Long id, String title, int orderIndex) {
+        return UserStoryEntity.builder()
+                .id(id)
+                .title(title)
+                .asA("customer")
+                .priority(PriorityEnum.MEDIUM)
+                .status(StatusEnum.TODO)
+                .orderIndex(orderIndex)
+                .build();
+    }
+
+    private static TaskEntity task(Long id, String title, int orderIndex, StatusEnum status, Integer estimatedHours) {
+        return TaskEntity.builder()
+                .id(id)
+                .title(title)
+                .status(status)
+                .estimatedHours(estimatedHours)
+                .orderIndex(orderIndex)
+                .build();
+    }
+
+    private static EpicRepository.TitleView titleView(Long id, String title) {
+        return new EpicRepository.TitleView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.planai.model.entity.EpicEntity;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.model.entity.TaskEntity;
+import com.planai.model.entity.UserStoryEntity;
+import com.planai.model.enums.PriorityEnum;
+import com.planai.model.enums.ProjectContextFormatEnum;
+import com.planai.model.enums.StatusEnum;
+
+/**
+ * Compares the prompt size of the MARKDOWN and COMPACT project context formats on sample plans of growing size,
+ * and checks that the compact format keeps every fact of the plan the extraction prompts rely on.
+ *
+ * Not picked up by the regular test run. Run it with
+ * {@code mvn test -Dtest=ProjectContextFormatBenchmark -Dsurefire.failIfNoSpecifiedTests=false}. Token counts are
+ * reported twice: with the {@link TokenEstimator} the context window is budgeted with, and as word and
+ * punctuation pieces, which approximate a BPE tokenizer better for short abbreviations. Fact recall is the share
+ * of titles, descriptions, story fields, non-default priorities and statuses and estimates found on the line of
+ * their item.
+ */
+class ProjectContextFormatBenchmark {
+
+    private static final Pattern PIECE = Pattern.compile("\\p{L}+|\\p{N}+|[^\\s\\p{L}\\p{N}]");
+    private static final Pattern ITEM_LINE = Pattern.compile("\\s*(- (Epic|Story|Task):|[EST]\\d+ )");
+    private static final List<Size> SIZES = List.of(
+            new Size("small", 3, 2, 3),
+            new Size("medium", 8, 4, 5),
+            new Size("large", 20, 6, 6));
+
+    private final ProjectContextRenderer renderer = new ProjectContextRenderer(ProjectContextFormatEnum.MARKDOWN);
+    private final TokenEstimator tokenEstimator = new TokenEstimator(4.0);
+
+    @Test
+    void compactContextIsSmallerAndKeepsEveryFact() {
+        System.out.printf("%n%-8s %-9s %9s %11s %9s %8s%n", "plan", "format", "chars", "est tokens", "pieces",
+                "recall");
+        for (Size size : SIZES) {
+            ProjectEntity project = sampleProject(size);
+            List<Fact> facts = factsOf(project);
+            String markdown = renderer.render(project, ProjectContextFormatEnum.MARKDOWN);
+            String compact = renderer.render(project, ProjectContextFormatEnum.COMPACT);
+
+            report(size.name(), "MARKDOWN", markdown, facts);
+            report(size.name(), "COMPACT", compact, facts);
+            System.out.printf("%-8s %-9s %8.0f%% %10.0f%% %8.0f%%%n", size.name(), "saved",
+                    saving(markdown.length(), compact.length()),
+                    saving(tokenEstimator.estimate(markdown), tokenEstimator.estimate(compact)),
+                    saving(pieces(markdown), pieces(compact)));
+
+            assertThat(recall(compact, facts)).isEqualTo(1.0);
+            assertThat(tokenEstimator.estimate(compact)).isLessThan(tokenEstimator.estimate(markdown));
+            assertThat(pieces(compact)).isLessThan(pieces(markdown));
+        }
+    }
+
+    private void report(String plan, String format, String context, List<Fact> facts) {
+        System.out.printf("%-8s %-9s %9d %11d %9d %7.0f%%%n", plan, format, context.length(),
+                tokenEstimator.estimate(context), pieces(context), recall(context, facts) * 100);
+    }
+
+    private static double saving(long before, long after) {
+        return 100.0 * (before - after) / before;
+    }
+
+    private static int pieces(String text) {
+        Matcher matcher = PIECE.matcher(text);
+        int pieces = 0;
+        while (matcher.find()) {
+            pieces++;
+        }
+        return pieces;
+    }
+
+    /**
+     * Returns the share of facts found on a line that also names their item; plan titles are unique.
+     */
+    private static double recall(String context, List<Fact> facts) {
+        String[] lines = context.split("\n");
+        long found = facts.stream()
+                .filter(fact -> {
+                    for (int i = 0; i < lines.length; i++) {
+                        if (!lines[i].contains(fact.item())) {
+                            continue;
+                        }
+                        // Markdown puts the details of an item on the lines below it, up to the next item.
+                        for (int j = i; j < lines.length && (j == i || !isItemLine(lines[j])); j++) {
+                            if (fact.matches(lines[j])) {
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                })
+                .count();
+        return (double) found / facts.size();
+    }
+
+    private static boolean isItemLine(String line) {
+        return ITEM_LINE.matcher(line).lookingAt();
+    }
+
+    private static List<Fact> factsOf(ProjectEntity project) {
+        List<Fact> facts = new ArrayList<>();
+        for (EpicEntity epic : project.getEpics()) {
+            facts.add(Fact.text(epic.getTitle(), epic.getTitle()));
+            facts.add(Fact.text(epic.getTitle(), epic.getDescription()));
+            facts.add(Fact.priority(epic.getTitle(), epic.getPriority()));
+            facts.add(Fact.status(epic.getTitle(), epic.getStatus()));
+            for (UserStoryEntity story : epic.getStories()) {
+                facts.add(Fact.text(story.getTitle(), story.getAsA()));
+                facts.add(Fact.text(story.getTitle(), story.getIWant()));
+                facts.add(Fact.text(story.getTitle(), story.getSoThat()));
+                facts.add(Fact.priority(story.getTitle(), story.getPriority()));
+                facts.add(Fact.status(story.getTitle(), story.getStatus()));
+                for (TaskEntity task : story.getTasks()) {
+                    facts.add(Fact.text(task.getTitle(), task.getDescription()));
+                    facts.add(Fact.status(task.getTitle(), task.getStatus()));
+                    facts.add(Fact.any(task.getTitle(), task.getEstimatedHours() + "h"));
+                }
+            }
+        }
+        return facts;
+    }
+
+    private static ProjectEntity sampleProject(Size size) {
+        Random random = new Random(42);
+        ProjectEntity project = ProjectEntity.builder()
+                .name("Sample " + size.name())
+                .description("A marketplace where local bakeries sell surplus bread at a discount before closing.")
+                .build();
+        for (int e = 1; e <= size.epics(); e++) {
+            EpicEntity epic = EpicEntity.builder()
+                    .project(project)
+                    .title("Epic " + e + " checkout and payments")
+                    .description("Everything needed to take orders and settle payments with partner bakeries.")
+                    .priority(pick(random, PriorityEnum.values()))
+                    .status(pick(random, StatusEnum.values()))
+                    .orderIndex(e)
+                    .build();
+            project.getEpics().add(epic);
+            for (int s = 1; s <= size.storiesPerEpic(); s++) {
+                UserStoryEntity story = UserStoryEntity.builder()
+                        .epic(epic)
+                        .title("Story " + e + "." + s + " pay for a reserved bag")
+                        .asA("registered customer")
+                        .iWant("to pay for my reserved bag in the app")
+                        .soThat("pickup at the bakery is quick")
+                        .priority(pick(random, PriorityEnum.values()))
+                        .status(pick(random, StatusEnum.values()))
+                        .orderIndex(s)
+                        .build();
+                epic.getStories().add(story);
+                for (int t = 1; t <= size.tasksPerStory(); t++) {
+                    story.getTasks().add(TaskEntity.builder()
+                            .userStory(story)
+                            .title("Task " + e + "." + s + "." + t + " payment intent endpoint")
+                            .description("Create a Spring Boot endpoint that opens a Stripe payment intent.")
+                            .status(pick(random, StatusEnum.values()))
+                            .estimatedHours(1 + random.nextInt(16))
+                            .orderIndex(t)
+                            .build());
+                }
+            }
+        }
+        return project;
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private record Size(String name, int epics, int storiesPerEpic, int tasksPerStory) {
+    }
+
+    /**
+     * A fact of the plan: one of the alternatives must appear on the line of the item or its detail lines.
+     */
+    private record Fact(String item, List<String> alternatives) {
+
+        static Fact text(String item, String text) {
+            return new Fact(item, List.of(text));
+        }
+
+        static Fact any(String item, String... alternatives) {
+            return new Fact(item, List.of(alternatives));
+        }
+
+        static Fact priority(String item, PriorityEnum priority) {
+            return switch (priority) {
+                case HIGH -> any(item, "Priority: HIGH", "{H");
+                case LOW -> any(item, "Priority: LOW", "{L");
+                // The compact format omits the default, so its absence is the fact.
+                case MEDIUM -> any(item, "Priority: MEDIUM", "");
+            };
+        }
+
+        static Fact status(String item, StatusEnum status) {
+            return switch (status) {
+                case IN_PROGRESS -> any(item, "Status: IN_PROGRESS", "WIP");
+                case DONE -> any(item, "Status: DONE", "DONE");
+                case TODO -> any(item, "Status: TODO", "");
+            };
+        }
+
+        boolean matches(String line) {
+            return alternatives.stream().anyMatch(line::contains);
+        }
+    }
+}
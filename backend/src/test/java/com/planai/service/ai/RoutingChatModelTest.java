@@ -0,0 +1,170 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.retry.support.RetryTemplate;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the router against two local stub OpenAI-compatible servers.
+ */
+class RoutingChatModelTest {
+
+    // Practically guarantees that the primary is drawn first
+    private static final int DOMINANT_WEIGHT = 1_000_000;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StubEndpoint primary;
+    private StubEndpoint secondary;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        primary.stop();
+        secondary.stop();
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheFasterAnswerWins() throws IOException {
+        primary = new StubEndpoint("from primary", 200, Duration.ofSeconds(3));
+        secondary = new StubEndpoint("from secondary", 200, Duration.ZERO);
+        RoutingChatModel router = router(DOMINANT_WEIGHT, 1, true, 3);
+
+        long start = System.nanoTime();
+        String answer = router.call(new Prompt("Plan my project")).getResult().getOutput().getContent();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(answer).isEqualTo("from secondary");
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(2));
+        assertThat(primary.hits()).isEqualTo(1);
+        assertThat(secondary.hits()).isEqualTo(1);
+        assertThat(meterRegistry.counter("planai.ai.routing.hedge-outcomes", "winner", "hedge").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void fastPrimaryIsNotHedged() throws IOException {
+        primary = new StubEndpoint("from primary", 200, Duration.ZERO);
+        secondary = new StubEndpoint("from secondary", 200, Duration.ZERO);
+        RoutingChatModel router = router(DOMINANT_WEIGHT, 1, true, 3);
+
+        String answer = router.call(new Prompt("Plan my project")).getResult().getOutput().getContent();
+
+        assertThat(answer).isEqualTo("from primary");
+        assertThat(secondary.hits()).isZero();
+    }
+
+    @Test
+    void failingEndpointIsEjectedAfterConsecutiveFailures() throws IOException {
+        primary = new StubEndpoint("unused", 500, Duration.ZERO);
+        secondary = new StubEndpoint("from secondary", 200, Duration.ZERO);
+        RoutingChatModel router = router(DOMINANT_WEIGHT, 1, false, 2);
+
+        for (int i = 0; i < 5; i++) {
+            String answer = router.call(new Prompt("Plan my project")).getResult().getOutput().getContent();
+            assertThat(answer).isEqualTo("from secondary");
+        }
+
+        assertThat(primary.hits()).isEqualTo(2);
+        assertThat(secondary.hits()).isEqualTo(5);
+    }
+
+    @Test
+    void callsAreSpreadByWeight() throws IOException {
+        primary = new StubEndpoint("from primary", 200, Duration.ZERO);
+        secondary = new StubEndpoint("from secondary", 200, Duration.ZERO);
+        RoutingChatModel router = router(3, 1, false, 3);
+
+        for (int i = 0; i < 200; i++) {
+            router.call(new Prompt("Plan my project"));
+        }
+
+        assertThat(primary.hits()).isBetween(120, 180);
+        assertThat(primary.hits() + secondary.hits()).isEqualTo(200);
+    }
+
+    private RoutingChatModel router(int primaryWeight, int secondaryWeight, boolean hedging, int ejectionThreshold) {
+        RoutingChatModel.Policy policy = new RoutingChatModel.Policy(hedging, 0.95, Duration.ofMillis(100),
+                Duration.ofMillis(200), ejectionThreshold, Duration.ofMinutes(1));
+        return new RoutingChatModel(List.of(
+                new RoutingChatModel.Endpoint("primary", primary.chatModel(), primaryWeight),
+                new RoutingChatModel.Endpoint("secondary", secondary.chatModel(), secondaryWeight)),
+                policy, executor, meterRegistry);
+    }
+
+    /**
+     * Minimal OpenAI-compatible chat completions server answering every request the same way.
+     */
+    private static final class StubEndpoint {
+
+        private final HttpServer server;
+        private final AtomicInteger hits = new AtomicInteger();
+
+        private StubEndpoint(String answer, int status, Duration delay) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/v1/chat/completions", exchange -> {
+                hits.incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = (status == 200 ? completion(answer) : "{\"error\":{\"message\":\"down\"}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                try (OutputStream output = exchange.getResponseBody()) {
+                    exchange.sendResponseHeaders(status, body.length);
+                    output.write(body);
+                } catch (IOException exception) {
+                    // The client cancelled the request, e.g. as the loser of a hedge.
+                }
+            });
+            server.start();
+        }
+
+        private OpenAiChatModel chatModel() {
+            OpenAiApi api = new OpenAiApi("http://localhost:" + server.getAddress().getPort(), "test");
+            return new OpenAiChatModel(api, OpenAiChatOptions.builder().withModel("stub").build(), null,
+                    RetryTemplate.builder().maxAttempts(1).build());
+        }
+
+        private int hits() {
+            return hits.get();
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+        private static String completion(String answer) {
+            return """
+                    {"id": "chatcmpl-stub", "object": "chat.completion", "created": 1, "model": "stub",
+                     "choices": [{"index": 0, "message": {"role": "assistant", "content": "%s"},
+                                  "finish_reason": "stop"}],
+                     "usage": {"prompt_tokens": 1, "completion_tokens": 1, "total_tokens": 2}}
+                    """.formatted(answer);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.exception.AiGenerationException;
+
+class StreamingPlanParserTest {
+
+    private static final String PLAN = """
+            {"epics": [
+              {"title": "Checkout", "description": "Pay for orders",
+               "userStories": [{"title": "Pay by card", "tasks": [{"title": "Card form", "estimatedHours": 3}]}]},
+              {"title": "Accounts", "userStories": []}
+            ]}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void emitsEachEpicAsSoonAsItIsComplete() {
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        int secondEpic = PLAN.indexOf("{\"title\": \"Accounts\"");
+
+        List<JsonNode> first = parser.feed(PLAN.substring(0, secondEpic));
+        List<JsonNode> rest = new ArrayList<>(parser.feed(PLAN.substring(secondEpic)));
+        rest.addAll(parser.finish());
+
+        assertThat(first).extracting(epic -> epic.path("title").asText()).containsExactly("Checkout");
+        assertThat(first.get(0).path("userStories").get(0).path("tasks").get(0).path("estimatedHours").asInt())
+                .isEqualTo(3);
+        assertThat(rest).extracting(epic -> epic.path("title").asText()).containsExactly("Accounts");
+    }
+
+    @Test
+    void parsesChunksSplitMidTokenAndMidString() throws Exception {
+        // One character per chunk splits every field name, string, number and literal.
+        List<JsonNode> epics = feedInChunks(PLAN, 1);
+
+        assertThat(epics).extracting(epic -> epic.path("title").asText()).containsExactly("Checkout", "Accounts");
+        assertThat(epics.get(0)).isEqualTo(objectMapper.readTree(PLAN).path("epics").get(0));
+    }
+
+    @Test
+    void keepsSurrogatePairsSplitAcrossChunksTogether() {
+        String plan = "{\"epics\": [{\"title\": \"Launch 🚀\"}]}";
+        int split = plan.indexOf('\uDE80');
+
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        List<JsonNode> epics = new ArrayList<>(parser.feed(plan.substring(0, split)));
+        epics.addAll(parser.feed(plan.substring(split)));
+        epics.addAll(parser.finish());
+
+        assertThat(epics).extracting(epic -> epic.path("title").asText()).containsExactly("Launch 🚀");
+    }
+
+    @Test
+    void ignoresBracesAndEscapedQuotesInsideStrings() {
+        String plan = """
+                {"epics": [{"title": "Parse {\\"epics\\": [}] and \\\\ paths", "userStories": []},
+                {"title": "}]}", "userStories": []}]}""";
+
+        List<JsonNode> epics = feedInChunks(plan, 3);
+
+        assertThat(epics).extracting(epic -> epic.path("title").asText())
+                .containsExactly("Parse {\"epics\": [}] and \\ paths", "}]}");
+    }
+
+    @Test
+    void ignoresProseAndCodeFencesAroundTheJson() {
+        String completion = "Here is the plan you asked for:\n```json\n" + PLAN
+                + "\n```\nLet me know if {anything} should change.";
+
+        List<JsonNode> epics = feedInChunks(completion, 7);
+
+        assertThat(epics).extracting(epic -> epic.path("title").asText()).containsExactly("Checkout", "Accounts");
+    }
+
+    @Test
+    void rejectsPlanWithoutEpicsArray() {
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        parser.feed("{\"stories\": [{\"title\": \"Orphan\"}]}");
+
+        assertThatThrownBy(parser::finish)
+                .isInstanceOf(AiGenerationException.class)
+                .hasMessageContaining("epics array");
+    }
+
+    @Test
+    void rejectsCompletionWithoutJson() {
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        parser.feed("Sorry, I cannot help with that.");
+
+        assertThatThrownBy(parser::finish)
+                .isInstanceOf(AiGenerationException.class)
+                .hasMessageContaining("valid JSON");
+    }
+
+    @Test
+    void rejectsTruncatedPlanButKeepsTheEpicsCompletedBeforeTheCut() {
+        int cut = PLAN.indexOf("\"Accounts\"") + 4;
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+
+        List<JsonNode> epics = parser.feed(PLAN.substring(0, cut));
+
+        assertThat(epics).extracting(epic -> epic.path("title").asText()).containsExactly("Checkout");
+        assertThatThrownBy(parser::finish).isInstanceOf(AiGenerationException.class);
+    }
+
+    private List<JsonNode> feedInChunks(String completion, int chunkSize) {
+        StreamingPlanParser parser = new StreamingPlanParser(objectMapper);
+        List<JsonNode> epics = new ArrayList<>();
+        for (int start = 0; start < completion.length(); start += chunkSize) {
+            epics.addAll(parser.feed(completion.substring(start, Math.min(completion.length(), start + chunkSize))));
+        }
+        epics.addAll(parser.finish());
+        return epics;
+    }
+}
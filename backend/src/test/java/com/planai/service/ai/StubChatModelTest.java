@@ -0,0 +1,111 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.planai.exception.AiGenerationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class StubChatModelTest {
+
+    private static final String PLAN_PROMPT = """
+            Output ONLY the following JSON structure.
+            {"epics": [{"title": "String", "userStories": [{"title": "String", "tasks": []}]}]}
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void synthesizesPlanJsonOfTheConfiguredSize() throws Exception {
+        StubChatModel stub = stub(StubChatModel.Mode.SYNTHETIC, null);
+
+        JsonNode plan = objectMapper.readTree(content(stub.call(new Prompt(PLAN_PROMPT))));
+
+        assertThat(plan.path("epics")).hasSize(3);
+        assertThat(plan.path("epics").get(0).path("userStories")).hasSize(2);
+        assertThat(plan.path("epics").get(0).path("userStories").get(0).path("tasks")).hasSize(4);
+        assertThat(content(stub.call(new Prompt(PLAN_PROMPT)))).isEqualTo(plan.toString());
+    }
+
+    @Test
+    void streamsTheSameAnswerInTokenSizedChunks() {
+        StubChatModel stub = stub(StubChatModel.Mode.SYNTHETIC, null);
+        String answer = content(stub.call(new Prompt("Hello")));
+
+        List<String> chunks = stub.stream(new Prompt("Hello")).map(StubChatModelTest::content).collectList().block();
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(String.join("", chunks)).isEqualTo(answer);
+    }
+
+    @Test
+    void recordedAnswersAreReplayedWithoutTheModel() {
+        CountingModel provider = new CountingModel();
+        StubChatModel recorder = stub(StubChatModel.Mode.RECORD, provider);
+        recorder.call(new Prompt("Plan my project"));
+        recorder.call(new Prompt("Plan my project"));
+
+        StubChatModel replay = stub(StubChatModel.Mode.REPLAY, null);
+
+        assertThat(provider.calls.get()).isEqualTo(1);
+        assertThat(replay.cassetteSize()).isEqualTo(1);
+        assertThat(content(replay.call(new Prompt("Plan my project")))).isEqualTo("recorded answer");
+        assertThatThrownBy(() -> replay.call(new Prompt("Something else")))
+                .isInstanceOf(AiGenerationException.class);
+    }
+
+    private StubChatModel stub(StubChatModel.Mode mode, ChatModel delegate) {
+        StubChatModel.Settings settings = new StubChatModel.Settings(mode, tempDir.resolve("cassette.jsonl"), false,
+                Duration.ZERO, 0, Duration.ZERO, 7, 3, 2, 4, 20);
+        return new StubChatModel(settings, delegate, objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static String content(ChatResponse response) {
+        return response.getResult().getOutput().getContent();
+    }
+
+    /**
+     * Provider stand-in that counts its calls.
+     */
+    private static final class CountingModel implements ChatModel {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            calls.incrementAndGet();
+            return new ChatResponse(List.of(new Generation("recorded answer")));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(call(prompt));
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return OpenAiChatOptions.builder().build();
+        }
+    }
+}
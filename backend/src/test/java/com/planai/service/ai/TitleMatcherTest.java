@@ -0,0 +1,86 @@
+package com.planai.service.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class TitleMatcherTest {
+
+    @Test
+    void pairsIdenticalTitlesIgnoringCaseAndPunctuationWhateverTheirPosition() {
+        List<String> matches = match(List.of("User login", "Payments", "Reports"),
+                List.of("reports", "PAYMENTS!", "User  login"));
+
+        assertThat(matches).containsExactly("Reports", "Payments", "User login");
+    }
+
+    @Test
+    void pairsDuplicateTitlesInOrder() {
+        List<Item> existing = List.of(new Item(1L, "Tests"), new Item(2L, "Tests"));
+
+        List<Item> matches = TitleMatcher.match(existing, Item::title, List.of("Tests", "Tests", "Tests"));
+
+        assertThat(matches).extracting(item -> item == null ? null : item.id()).containsExactly(1L, 2L, null);
+    }
+
+    @Test
+    void pairsSimilarTitlesAndLeavesDissimilarOnesUnmatched() {
+        List<String> matches = match(List.of("User login page", "Payments"),
+                List.of("User login screen", "Reporting"));
+
+        assertThat(matches).containsExactly("User login page", null);
+    }
+
+    @Test
+    void requiresADiceSimilarityOfAtLeastOneHalf() {
+        // "abc" and "abd" share one of two bigrams each: 2 * 1 / (2 + 2) = 0.5.
+        assertThat(TitleMatcher.similarity("abc", "abd")).isEqualTo(0.5);
+        // "abcd" and "abxy" share one of three bigrams each: 2 * 1 / (3 + 3) < 0.5.
+        assertThat(TitleMatcher.similarity("abcd", "abxy")).isLessThan(0.5);
+
+        assertThat(match(List.of("abc"), List.of("abd"))).containsExactly("abc");
+        assertThat(match(List.of("abcd"), List.of("abxy"))).containsExactly((String) null);
+    }
+
+    @Test
+    void scoresSimilarityAsDiceCoefficientOfBigrams() {
+        assertThat(TitleMatcher.similarity("night", "nacht")).isEqualTo(0.25);
+        assertThat(TitleMatcher.similarity("same", "same")).isEqualTo(1.0);
+        assertThat(TitleMatcher.similarity("a", "ab")).isZero();
+    }
+
+    @Test
+    void greedyPairingPrefersTitleSimilarityOverPosition() {
+        // Both extracted titles are similar enough to both existing ones; the closest titles win even though
+        // their positions are swapped.
+        List<String> matches = match(List.of("Checkout flow", "Checkout page"),
+                List.of("Checkout pages", "Checkout flows"));
+
+        assertThat(matches).containsExactly("Checkout page", "Checkout flow");
+    }
+
+    @Test
+    void greedyPairingGivesAContestedItemToTheBestScoreOnly() {
+        List<String> matches = match(List.of("Checkout page"), List.of("Checkout flows", "Checkout pages"));
+
+        assertThat(matches).containsExactly(null, "Checkout page");
+    }
+
+    @Test
+    void exactMatchesAreNotTakenByFuzzyCandidates() {
+        List<String> matches = match(List.of("Checkout pages", "Checkout page"),
+                List.of("Checkout page", "Checkout pages"));
+
+        assertThat(matches).containsExactly("Checkout page", "Checkout pages");
+    }
+
+    private static List<String> match(List<String> existing, List<String> extracted) {
+        return TitleMatcher.match(existing, Function.identity(), extracted);
+    }
+
+    private record Item(Long id, String title) {
+    }
+}
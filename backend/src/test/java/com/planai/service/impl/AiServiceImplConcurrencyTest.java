@@ -0,0 +1,175 @@
+package com.planai.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.planai.model.dto.request.ChatRequest;
+import com.planai.model.dto.request.CreateProjectRequest;
+import com.planai.service.AiService;
+import com.planai.service.ProjectService;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Load test proving that in-flight AI calls do not pin database connections: 50 concurrent chats
+ * against a 10-connection pool must all reach the model while CRUD endpoints stay responsive.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.connection-timeout=2000",
+        // The test asserts that all calls are in flight together, so the AI call limiter must not queue them
+        "app.ai.limits.max-concurrent=1000",
+        "app.ai.limits.per-project-max-concurrent=1000",
+        "app.ai.limits.requests-per-minute=0",
+        "app.ai.limits.max-queued=10000"
+})
+@ActiveProfiles("test")
+@Import(AiServiceImplConcurrencyTest.BlockingChatModelConfig.class)
+class AiServiceImplConcurrencyTest {
+
+    private static final int CONCURRENT_CHATS = 50;
+    private static final int CRUD_SAMPLES = 20;
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private BlockingChatModel chatModel;
+
+    @Test
+    void crudLatencyStaysFlatWhileChatsAreInFlight() throws Exception {
+        Long projectId = projectService
+                .createProject(CreateProjectRequest.builder().name("Load test").build())
+                .getId();
+        Duration baseline = measureCrudLatency(projectId);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CHATS);
+        try {
+            List<Future<com.planai.model.dto.response.ChatResponse>> chats = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHATS; i++) {
+                ChatRequest request = ChatRequest.builder().message("Message " + i).build();
+                chats.add(executor.submit(() -> aiService.chat(projectId, request)));
+            }
+
+            assertThat(chatModel.awaitInFlight(CONCURRENT_CHATS, Duration.ofSeconds(30)))
+                    .as("all chats should be waiting on the model at the same time")
+                    .isTrue();
+
+            Duration underLoad = measureCrudLatency(projectId);
+            assertThat(underLoad)
+                    .as("CRUD latency with %d chats in flight (baseline %s)", CONCURRENT_CHATS, baseline)
+                    .isLessThan(baseline.multipliedBy(10).plus(Duration.ofMillis(250)));
+
+            chatModel.release();
+            for (Future<com.planai.model.dto.response.ChatResponse> chat : chats) {
+                assertThat(chat.get(30, TimeUnit.SECONDS).getAssistantMessage()).isEqualTo(BlockingChatModel.ANSWER);
+            }
+        } finally {
+            chatModel.release();
+            executor.shutdownNow();
+        }
+    }
+
+    private Duration measureCrudLatency(Long projectId) {
+        long worst = 0;
+        for (int i = 0; i < CRUD_SAMPLES; i++) {
+            long start = System.nanoTime();
+            projectService.getAllProjects();
+            projectService.getProjectDetail(projectId);
+            worst = Math.max(worst, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(worst);
+    }
+
+    @TestConfiguration
+    static class BlockingChatModelConfig {
+
+        @Bean
+        BlockingChatModel blockingChatModel() {
+            return new BlockingChatModel();
+        }
+
+        @Bean
+        @Primary
+        ChatClient blockingChatClient(BlockingChatModel blockingChatModel) {
+            return ChatClient.create(blockingChatModel);
+        }
+    }
+
+    /**
+     * Chat model that parks every call until released, simulating a slow provider.
+     */
+    static class BlockingChatModel implements ChatModel {
+
+        static final String ANSWER = "Stubbed answer";
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            inFlight.incrementAndGet();
+            try {
+                release.await(60, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new ChatResponse(List.of(new Generation(ANSWER)));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(call(prompt));
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return OpenAiChatOptions.builder().build();
+        }
+
+        boolean awaitInFlight(int expected, Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (inFlight.get() < expected) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(20);
+            }
+            return true;
+        }
+
+        void release() {
+            release.countDown();
+        }
+    }
+}
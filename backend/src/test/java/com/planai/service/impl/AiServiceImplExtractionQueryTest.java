@@ -0,0 +1,131 @@
+package com.planai.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.planai.model.entity.ConversationEntity;
+import com.planai.model.entity.MessageEntity;
+import com.planai.model.entity.ProjectEntity;
+import com.planai.model.enums.ExtractionModeEnum;
+import com.planai.model.enums.MessageRoleEnum;
+import com.planai.repository.ConversationRepository;
+import com.planai.repository.MessageRepository;
+import com.planai.repository.ProjectRepository;
+import com.planai.service.AiService;
+
+import jakarta.persistence.EntityManagerFactory;
+import reactor.core.publisher.Flux;
+
+/**
+ * Verifies that building the extraction history does not issue one query per conversation.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(AiServiceImplExtractionQueryTest.FixedPlanChatModelConfig.class)
+class AiServiceImplExtractionQueryTest {
+
+    @Autowired
+    private AiService aiService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void extractionStatementCountIsConstantInNumberOfConversations() {
+        Long smallProject = createProject(2);
+        Long largeProject = createProject(25);
+
+        long smallCount = countStatements(smallProject);
+        long largeCount = countStatements(largeProject);
+
+        assertThat(largeCount).isEqualTo(smallCount);
+    }
+
+    private long countStatements(Long projectId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        aiService.extractPlan(projectId, ExtractionModeEnum.FULL);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long createProject(int conversations) {
+        ProjectEntity project = projectRepository.save(ProjectEntity.builder().name("Project").build());
+        for (int i = 0; i < conversations; i++) {
+            ConversationEntity conversation =
+                    conversationRepository.save(ConversationEntity.builder().project(project).build());
+            messageRepository.save(message(conversation, MessageRoleEnum.USER, "We need a login page " + i));
+            messageRepository.save(message(conversation, MessageRoleEnum.ASSISTANT, "Use email and password."));
+        }
+        return project.getId();
+    }
+
+    private MessageEntity message(ConversationEntity conversation, MessageRoleEnum role, String content) {
+        return MessageEntity.builder().conversation(conversation).role(role).content(content).build();
+    }
+
+    @TestConfiguration
+    static class FixedPlanChatModelConfig {
+
+        @Bean
+        @Primary
+        ChatClient fixedPlanChatClient() {
+            return ChatClient.create(new FixedPlanChatModel());
+        }
+    }
+
+    /**
+     * Chat model that always answers with the same one-epic plan.
+     */
+    static class FixedPlanChatModel implements ChatModel {
+
+        private static final String PLAN = """
+                {"epics": [{"title": "Authentication", "description": "Sign in", "priority": "HIGH",
+                  "userStories": [{"title": "Login", "asA": "user", "iWant": "to log in", "soThat": "I can work",
+                    "priority": "HIGH",
+                    "tasks": [{"title": "Login form", "description": "Form", "estimatedHours": 3}]}]}]}
+                """;
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return new ChatResponse(List.of(new Generation(PLAN)));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(call(prompt));
+        }
+
+        @Override
+        public ChatOptions getDefaultOptions() {
+            return OpenAiChatOptions.builder().build();
+        }
+    }
+}